@@ -0,0 +1,134 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Decides which methods are analyzed by pointer analysis.
+ * <p>
+ * The scope is given by option "scope", whose value is either "all"
+ * (default, analyze all reachable methods), "app" (only analyze application
+ * methods), or comma-separated class name patterns, e.g., "com.example.*,Main",
+ * where a pattern ending with "*" matches all classes with the given prefix.
+ * Calls to methods outside the scope are not analyzed, but summarized
+ * by the solver, which trades soundness for efficiency.
+ */
+class ScopeFilter {
+
+    private static final Logger logger = LogManager.getLogger(ScopeFilter.class);
+
+    private final boolean all;
+
+    private final boolean onlyApp;
+
+    private final List<String> prefixes = new ArrayList<>();
+
+    private final Set<String> classNames = Sets.newSet();
+
+    /**
+     * Out-of-scope methods that have been skipped.
+     */
+    private final Set<JMethod> skippedMethods = Sets.newSet();
+
+    /**
+     * Skipped call edges.
+     */
+    private final Set<Pair<Invoke, JMethod>> skippedCalls = Sets.newSet();
+
+    /**
+     * Number of PFG edges that are not added due to skipped calls.
+     */
+    private int skippedEdges = 0;
+
+    ScopeFilter(AnalysisOptions options) {
+        String scope = options.getString("scope");
+        all = scope == null || scope.equals("all");
+        onlyApp = "app".equals(scope);
+        if (!all && !onlyApp) {
+            for (String pattern : scope.split(",")) {
+                pattern = pattern.strip();
+                if (pattern.endsWith("*")) {
+                    prefixes.add(pattern.substring(0, pattern.length() - 1));
+                } else if (!pattern.isEmpty()) {
+                    classNames.add(pattern);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if given method should be analyzed, otherwise false.
+     */
+    boolean isInScope(JMethod method) {
+        if (all) {
+            return true;
+        }
+        if (onlyApp) {
+            return method.getDeclaringClass().isApplication();
+        }
+        String className = method.getDeclaringClass().getName();
+        return classNames.contains(className) ||
+                prefixes.stream().anyMatch(className::startsWith);
+    }
+
+    /**
+     * Records a call edge to an out-of-scope method.
+     *
+     * @param callSite the call site.
+     * @param callee   the skipped callee.
+     */
+    void recordSkipped(Invoke callSite, JMethod callee) {
+        if (skippedCalls.add(new Pair<>(callSite, callee))) {
+            skippedMethods.add(callee);
+            // edges for arguments, receiver object and return value
+            skippedEdges += callSite.getInvokeExp().getArgs().size();
+            if (!callSite.isStatic()) {
+                ++skippedEdges;
+            }
+            if (callSite.getLValue() != null) {
+                ++skippedEdges;
+            }
+        }
+    }
+
+    /**
+     * Logs the statistics of the skipped methods and PFG edges.
+     */
+    void report() {
+        if (!all) {
+            logger.info("Scope filter skipped {} methods and {} PFG edges",
+                    skippedMethods.size(), skippedEdges);
+        }
+    }
+}
@@ -30,6 +30,7 @@ import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.MockObj;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.Var;
@@ -45,20 +46,36 @@ import pascal.taie.ir.stmt.StoreField;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
-import pascal.taie.util.AnalysisException;
+import pascal.taie.language.type.ReferenceType;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
 import polyglot.ast.Call;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 class Solver {
 
     private static final Logger logger = LogManager.getLogger(Solver.class);
 
+    /**
+     * Description of the objects that summarize the results of
+     * calls to out-of-scope methods.
+     */
+    private static final String STUB_DESC = "ScopeStubObj";
+
     private final HeapModel heapModel;
 
+    private final ScopeFilter scopeFilter;
+
+    /**
+     * Map from call sites to the objects summarizing their results.
+     */
+    private final Map<Invoke, Obj> stubObjs = Maps.newMap();
+
     private DefaultCallGraph callGraph;
 
     private PointerFlowGraph pointerFlowGraph;
@@ -69,8 +86,9 @@ class Solver {
 
     private ClassHierarchy hierarchy;
 
-    Solver(HeapModel heapModel) {
+    Solver(HeapModel heapModel, ScopeFilter scopeFilter) {
         this.heapModel = heapModel;
+        this.scopeFilter = scopeFilter;
     }
 
     /**
@@ -79,6 +97,7 @@ class Solver {
     void solve() {
         initialize();
         analyze();
+        scopeFilter.report();
     }
 
     /**
@@ -153,6 +172,10 @@ class Solver {
         public Void visit(Invoke stmt) {
             if(stmt.isStatic()){
                 JMethod m = resolveCallee(null, stmt);
+                if (!scopeFilter.isInScope(m)) {
+                    stubCall(stmt, m);
+                    return null;
+                }
                 CallKind k = getCallKind(stmt);
                 if(callGraph.addEdge(new Edge<>(k, stmt, m))){
                     addReachable(m);
@@ -269,6 +292,10 @@ class Solver {
                 if(stmt instanceof Invoke invoke
                         && var.getInvokes().contains(invoke)){
                     JMethod m = resolveCallee(recv, invoke);
+                    if (!scopeFilter.isInScope(m)) {
+                        stubCall(invoke, m);
+                        return;
+                    }
 //                    if(!m.isStatic())
                         workList.addEntry(pointerFlowGraph.getVarPtr(m.getIR().getThis())
                             , new PointsToSet(recv));
@@ -296,6 +323,20 @@ class Solver {
         }
     }
 
+    /**
+     * Summarizes a call to out-of-scope method: the callee is not analyzed,
+     * and the result of the call points to a mock object of the return type.
+     */
+    private void stubCall(Invoke callSite, JMethod callee) {
+        scopeFilter.recordSkipped(callSite, callee);
+        Var lhs = callSite.getLValue();
+        if (lhs != null && callee.getReturnType() instanceof ReferenceType) {
+            Obj obj = stubObjs.computeIfAbsent(callSite, site -> new MockObj(
+                    STUB_DESC, site, callee.getReturnType(), site.getContainer()));
+            workList.addEntry(pointerFlowGraph.getVarPtr(lhs), new PointsToSet(obj));
+        }
+    }
+
     private static CallKind getCallKind(Invoke stmt) {
         CallKind k = CallKind.OTHER;
         if(stmt.isStatic())
@@ -78,4 +78,9 @@ public class CIPTATest {
     public void testMergeParam() {
         Tests.testCIPTA(DIR, "MergeParam");
     }
+
+    @Test
+    public void testScope() {
+        Tests.testCIPTA(DIR, "Scope", "scope:Scope,Item");
+    }
 }
@@ -0,0 +1,150 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta;
+
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AbstractResultHolder;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * {@link PointerAnalysisResult} which runs the pointer analysis at the
+ * first query on points-to relations or call graph, and then delegates
+ * all queries to the computed result.
+ * <p>
+ * The results stored in this holder are kept by this object itself, so
+ * storing or retrieving them does not trigger the analysis.
+ */
+public class LazyPointerAnalysisResult extends AbstractResultHolder
+        implements PointerAnalysisResult {
+
+    private final Supplier<PointerAnalysisResult> analysis;
+
+    private PointerAnalysisResult result;
+
+    /**
+     * @param analysis supplier which runs the pointer analysis
+     *                 and returns its result
+     */
+    public LazyPointerAnalysisResult(Supplier<PointerAnalysisResult> analysis) {
+        this.analysis = analysis;
+    }
+
+    /**
+     * @return the result of pointer analysis. If the analysis has not run,
+     * runs it first.
+     */
+    public synchronized PointerAnalysisResult get() {
+        if (result == null) {
+            result = analysis.get();
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the pointer analysis has run.
+     */
+    public synchronized boolean isAnalyzed() {
+        return result != null;
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return get().getCSVars();
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return get().getVars();
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return get().getInstanceFields();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return get().getArrayIndexes();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return get().getStaticFields();
+    }
+
+    @Override
+    public Collection<CSObj> getCSObjects() {
+        return get().getCSObjects();
+    }
+
+    @Override
+    public Collection<Obj> getObjects() {
+        return get().getObjects();
+    }
+
+    @Override
+    public Set<CSObj> getPointsToSet(CSVar csVar) {
+        return get().getPointsToSet(csVar);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var var) {
+        return get().getPointsToSet(var);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var var, JField field) {
+        return get().getPointsToSet(var, field);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(JField field) {
+        return get().getPointsToSet(field);
+    }
+
+    @Override
+    public CallGraph<CSCallSite, CSMethod> getCSCallGraph() {
+        return get().getCSCallGraph();
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> getCallGraph() {
+        return get().getCallGraph();
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AbstractResultHolder;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * {@link PointerAnalysisResult} which caches the context-insensitive
+ * projections of the result.
+ * <p>
+ * At the first context-insensitive query on variables, the points-to sets
+ * of all variables are projected at once, in parallel, i.e., the points-to
+ * sets of the CS variables of each variable are merged and the contexts of
+ * objects are removed. Each projected set is stored as a compact immutable
+ * set, and equal sets (e.g., of variables related by copies) share a single
+ * instance. The projected objects are also computed only once.
+ * Other queries are delegated to {@link PointerAnalysisResultImpl}.
+ * <p>
+ * The projections are computed from the final result, so this class
+ * should be created after pointer analysis finishes.
+ */
+public class ProjectingPointerAnalysisResult extends AbstractResultHolder
+        implements PointerAnalysisResult {
+
+    private final CSManager csManager;
+
+    private final PointerAnalysisResultImpl base;
+
+    /**
+     * Projected points-to sets of all variables, computed at the first query.
+     */
+    private volatile Map<Var, Set<Obj>> varPointsTo;
+
+    private volatile Set<Obj> objects;
+
+    public ProjectingPointerAnalysisResult(
+            CSManager csManager, CallGraph<CSCallSite, CSMethod> csCallGraph) {
+        this.csManager = csManager;
+        this.base = new PointerAnalysisResultImpl(csManager, csCallGraph);
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return base.getCSVars();
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return base.getVars();
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return base.getInstanceFields();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return base.getArrayIndexes();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return base.getStaticFields();
+    }
+
+    @Override
+    public Collection<CSObj> getCSObjects() {
+        return base.getCSObjects();
+    }
+
+    @Override
+    public Collection<Obj> getObjects() {
+        Set<Obj> result = objects;
+        if (result == null) {
+            synchronized (this) {
+                result = objects;
+                if (result == null) {
+                    result = csManager.getObjects()
+                            .parallelStream()
+                            .map(CSObj::getObject)
+                            .collect(Collectors.toUnmodifiableSet());
+                    objects = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Set<CSObj> getPointsToSet(CSVar csVar) {
+        return base.getPointsToSet(csVar);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var var) {
+        Map<Var, Set<Obj>> result = varPointsTo;
+        if (result == null) {
+            synchronized (this) {
+                result = varPointsTo;
+                if (result == null) {
+                    result = projectVars();
+                    varPointsTo = result;
+                }
+            }
+        }
+        return result.getOrDefault(var, Set.of());
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var var, JField field) {
+        return base.getPointsToSet(var, field);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(JField field) {
+        return base.getPointsToSet(field);
+    }
+
+    @Override
+    public CallGraph<CSCallSite, CSMethod> getCSCallGraph() {
+        return base.getCSCallGraph();
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> getCallGraph() {
+        return base.getCallGraph();
+    }
+
+    /**
+     * Projects points-to sets of all variables in parallel.
+     */
+    private Map<Var, Set<Obj>> projectVars() {
+        Map<Set<Obj>, Set<Obj>> canonical = Maps.newConcurrentMap();
+        Map<Var, Set<Obj>> result = base.getVars()
+                .parallelStream()
+                .collect(Collectors.toConcurrentMap(Function.identity(),
+                        var -> canonical.computeIfAbsent(project(var),
+                                Function.identity())));
+        return Map.copyOf(result);
+    }
+
+    /**
+     * Projects points-to set of given variable.
+     */
+    private Set<Obj> project(Var var) {
+        return csManager.getCSVarsOf(var)
+                .stream()
+                .flatMap(csVar -> csVar.getPointsToSet().objects())
+                .map(CSObj::getObject)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -45,6 +45,11 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     private final CSManager csManager;
 
+    /**
+     * Number of edges in this call graph, maintained incrementally.
+     */
+    private int numberOfEdges = 0;
+
     public CSCallGraph(CSManager csManager) {
         this.csManager = csManager;
     }
@@ -64,8 +69,11 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
      */
     public boolean addReachableMethod(CSMethod csMethod) {
         if (reachableMethods.add(csMethod)) {
-            callSitesIn(csMethod).forEach(csCallSite ->
-                    csCallSite.setContainer(csMethod));
+            // CS call sites of reachable methods are computed only once
+            collectCallSites(csMethod).forEach(csCallSite -> {
+                csCallSite.setContainer(csMethod);
+                callSitesIn.put(csMethod, csCallSite);
+            });
             return true;
         } else {
             return false;
@@ -82,6 +90,7 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
     public boolean addEdge(Edge<CSCallSite, CSMethod> edge) {
         if (edge.getCallSite().addEdge(edge)) {
             edge.getCallee().addEdge(edge);
+            ++numberOfEdges;
             return true;
         } else {
             return false;
@@ -105,6 +114,11 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     @Override
     public Set<CSCallSite> getCallSitesIn(CSMethod csMethod) {
+        return Collections.unmodifiableSet(reachableMethods.contains(csMethod) ?
+                callSitesIn.get(csMethod) : collectCallSites(csMethod));
+    }
+
+    private Set<CSCallSite> collectCallSites(CSMethod csMethod) {
         JMethod method = csMethod.getMethod();
         Context context = csMethod.getContext();
         Set<CSCallSite> callSites = Sets.newHybridOrderedSet();
@@ -114,7 +128,7 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
                 callSites.add(csCallSite);
             }
         }
-        return Collections.unmodifiableSet(callSites);
+        return callSites;
     }
 
     @Override
@@ -134,6 +148,11 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
                 .flatMap(this::edgesOutOf);
     }
 
+    @Override
+    public int getNumberOfEdges() {
+        return numberOfEdges;
+    }
+
     @Override
     public boolean isRelevant(Stmt stmt) {
         throw new UnsupportedOperationException();
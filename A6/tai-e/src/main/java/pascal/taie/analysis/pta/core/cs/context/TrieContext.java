@@ -0,0 +1,200 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.context;
+
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Indexable;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Context represented as a node of a trie of context elements.
+ * <p>
+ * Contexts are interned by {@link Factory}: each context is created
+ * exactly once as the child of its parent context (the context without
+ * its last element), thus contexts can be compared by identity.
+ * The hash code is computed once at creation, and each context
+ * receives a dense integer index, which can be used to index arrays.
+ */
+public class TrieContext implements Context, Indexable {
+
+    private final TrieContext parent;
+
+    private final Object elem;
+
+    private final int length;
+
+    private final int hashCode;
+
+    private final int index;
+
+    /**
+     * Children of this context, created on demand.
+     */
+    private Map<Object, TrieContext> children;
+
+    private TrieContext(TrieContext parent, Object elem, int index) {
+        this.parent = parent;
+        this.elem = elem;
+        this.index = index;
+        if (parent == null) {
+            this.length = 0;
+            this.hashCode = 1;
+        } else {
+            this.length = parent.length + 1;
+            this.hashCode = 31 * parent.hashCode + elem.hashCode();
+        }
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public Object getElementAt(int i) {
+        if (i < 0 || i >= length) {
+            throw new AnalysisException(
+                    "Context " + this + " doesn't have " + i + "-th element");
+        }
+        TrieContext c = this;
+        for (int j = length - 1; j > i; --j) {
+            c = c.parent;
+        }
+        return c.elem;
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        // contexts are interned, so identity suffices
+        return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        List<Object> elems = new ArrayList<>(length);
+        for (TrieContext c = this; c.parent != null; c = c.parent) {
+            elems.add(0, c.elem);
+        }
+        return elems.toString();
+    }
+
+    /**
+     * Creates and interns contexts. Contexts made by different factories
+     * are always different, so a pointer analysis should obtain all its
+     * contexts from the same factory. This class is not thread-safe.
+     *
+     * @param <T> type of context elements
+     */
+    public static class Factory<T> {
+
+        private final TrieContext root = new TrieContext(null, null, 0);
+
+        private int counter = 1;
+
+        /**
+         * @return the empty context.
+         */
+        public Context getEmptyContext() {
+            return root;
+        }
+
+        /**
+         * @return the context that consists of given context elements.
+         */
+        @SafeVarargs
+        public final Context make(T... elements) {
+            TrieContext c = root;
+            for (T elem : elements) {
+                c = getChild(c, elem);
+            }
+            return c;
+        }
+
+        /**
+         * @return the context that consists of the last {@code limit}
+         * elements of {@code parent} followed by {@code elem}, i.e., the
+         * last {@code limit} elements of the concatenated context.
+         */
+        public Context append(Context parent, T elem, int limit) {
+            TrieContext p = (TrieContext) parent;
+            if (p.length >= limit) {
+                p = (TrieContext) makeLastK(p, limit - 1);
+            }
+            return getChild(p, elem);
+        }
+
+        /**
+         * @return the context that consists of the last {@code k} elements
+         * of given context.
+         */
+        public Context makeLastK(Context context, int k) {
+            TrieContext c = (TrieContext) context;
+            if (k >= c.length) {
+                return c;
+            }
+            if (k <= 0) {
+                return root;
+            }
+            Object[] elems = new Object[k];
+            for (int i = k - 1; i >= 0; --i) {
+                elems[i] = c.elem;
+                c = c.parent;
+            }
+            c = root;
+            for (Object elem : elems) {
+                c = getChild(c, elem);
+            }
+            return c;
+        }
+
+        /**
+         * @return number of contexts created by this factory,
+         * including the empty context.
+         */
+        public int getNumberOfContexts() {
+            return counter;
+        }
+
+        private TrieContext getChild(TrieContext parent, Object elem) {
+            if (parent.children == null) {
+                parent.children = Maps.newHybridMap();
+            }
+            return parent.children.computeIfAbsent(elem,
+                    e -> new TrieContext(parent, e, counter++));
+        }
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Indexable;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Implementation of {@link CSManager} that avoids nested hash maps.
+ * <p>
+ * The context-sensitive elements of each variable, object, call site and
+ * method are kept in a small open-addressing table keyed by contexts,
+ * which is probed by the index of interned contexts (see
+ * {@link pascal.taie.analysis.pta.core.cs.context.TrieContext}),
+ * or by the hash code for other contexts. Fields and array indexes are
+ * stored in lists indexed by their base objects.
+ * <p>
+ * Each CS element receives an index which is dense among the elements
+ * of the same kind, i.e., CS objects, pointers, CS call sites and CS methods
+ * are numbered separately, so that the indexes of CS objects can be used
+ * as bit positions by bitmap-based points-to sets, and the elements can be
+ * retrieved by {@link #getObject(int)} and {@link #getPointer(int)}.
+ */
+public class ArrayBasedCSManager implements CSManager {
+
+    private final Map<Var, ContextTable<CSVar>> vars = Maps.newMap();
+
+    private final Map<Obj, ContextTable<CSObj>> objs = Maps.newMap();
+
+    private final Map<Invoke, ContextTable<CSCallSite>> callSites = Maps.newMap();
+
+    private final Map<JMethod, ContextTable<CSMethod>> methods = Maps.newMap();
+
+    private final Map<JField, StaticField> staticFields = Maps.newMap();
+
+    /**
+     * Instance fields of CS objects, indexed by the indexes of the objects.
+     */
+    private final List<Map<JField, InstanceField>> instanceFields = new ArrayList<>();
+
+    /**
+     * Array indexes of CS objects, indexed by the indexes of the objects.
+     */
+    private final List<ArrayIndex> arrayIndexes = new ArrayList<>();
+
+    private final List<CSObj> objList = new ArrayList<>();
+
+    private final List<Pointer> pointerList = new ArrayList<>();
+
+    private int callSiteCounter = 0;
+
+    private int methodCounter = 0;
+
+    @Override
+    public CSVar getCSVar(Context context, Var var) {
+        return vars.computeIfAbsent(var, v -> new ContextTable<>())
+                .getOrCreate(context, c -> addPointer(new CSVar(var, c)));
+    }
+
+    @Override
+    public CSObj getCSObj(Context heapContext, Obj obj) {
+        return objs.computeIfAbsent(obj, o -> new ContextTable<>())
+                .getOrCreate(heapContext, c -> {
+                    CSObj csObj = new CSObj(obj, c);
+                    csObj.setIndex(objList.size());
+                    objList.add(csObj);
+                    instanceFields.add(null);
+                    arrayIndexes.add(null);
+                    return csObj;
+                });
+    }
+
+    @Override
+    public CSCallSite getCSCallSite(Context context, Invoke callSite) {
+        return callSites.computeIfAbsent(callSite, s -> new ContextTable<>())
+                .getOrCreate(context, c -> {
+                    CSCallSite csCallSite = new CSCallSite(callSite, c);
+                    csCallSite.setIndex(callSiteCounter++);
+                    return csCallSite;
+                });
+    }
+
+    @Override
+    public CSMethod getCSMethod(Context context, JMethod method) {
+        return methods.computeIfAbsent(method, m -> new ContextTable<>())
+                .getOrCreate(context, c -> {
+                    CSMethod csMethod = new CSMethod(method, c);
+                    csMethod.setIndex(methodCounter++);
+                    return csMethod;
+                });
+    }
+
+    @Override
+    public StaticField getStaticField(JField field) {
+        return staticFields.computeIfAbsent(field, f ->
+                addPointer(new StaticField(f)));
+    }
+
+    @Override
+    public InstanceField getInstanceField(CSObj base, JField field) {
+        int i = indexOf(base);
+        Map<JField, InstanceField> fields = instanceFields.get(i);
+        if (fields == null) {
+            fields = Maps.newHybridMap();
+            instanceFields.set(i, fields);
+        }
+        return fields.computeIfAbsent(field, f ->
+                addPointer(new InstanceField(base, f)));
+    }
+
+    @Override
+    public ArrayIndex getArrayIndex(CSObj array) {
+        int i = indexOf(array);
+        ArrayIndex arrayIndex = arrayIndexes.get(i);
+        if (arrayIndex == null) {
+            arrayIndex = addPointer(new ArrayIndex(array));
+            arrayIndexes.set(i, arrayIndex);
+        }
+        return arrayIndex;
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return Collections.unmodifiableSet(vars.keySet());
+    }
+
+    @Override
+    public Collection<CSVar> getCSVarsOf(Var var) {
+        ContextTable<CSVar> csVars = vars.get(var);
+        return csVars != null ? csVars.values() : Collections.emptyList();
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return vars.values()
+                .stream()
+                .flatMap(t -> t.values().stream())
+                .toList();
+    }
+
+    @Override
+    public Collection<CSObj> getObjects() {
+        return Collections.unmodifiableList(objList);
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return Collections.unmodifiableCollection(staticFields.values());
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return instanceFields.stream()
+                .filter(Objects::nonNull)
+                .flatMap(m -> m.values().stream())
+                .toList();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return arrayIndexes.stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * @return the CS object with given index.
+     */
+    public CSObj getObject(int index) {
+        return objList.get(index);
+    }
+
+    /**
+     * @return number of CS objects created by this manager.
+     */
+    public int getNumberOfObjects() {
+        return objList.size();
+    }
+
+    /**
+     * @return the pointer with given index.
+     */
+    public Pointer getPointer(int index) {
+        return pointerList.get(index);
+    }
+
+    /**
+     * @return number of pointers created by this manager.
+     */
+    public int getNumberOfPointers() {
+        return pointerList.size();
+    }
+
+    private int indexOf(CSObj obj) {
+        int i = obj.getIndex();
+        if (i < 0 || i >= objList.size() || objList.get(i) != obj) {
+            throw new IllegalArgumentException(
+                    obj + " is not created by this CSManager");
+        }
+        return i;
+    }
+
+    private <P extends AbstractPointer> P addPointer(P pointer) {
+        pointer.setIndex(pointerList.size());
+        pointerList.add(pointer);
+        pointer.setPointsToSet(PointsToSetFactory.make());
+        return pointer;
+    }
+
+    /**
+     * Open-addressing table from contexts to CS elements. Most elements
+     * have only a few contexts, thus the table starts with a tiny array
+     * and grows on demand.
+     */
+    private static class ContextTable<E> {
+
+        private Context[] keys = new Context[2];
+
+        private Object[] values = new Object[2];
+
+        private int size = 0;
+
+        E getOrCreate(Context context, Function<Context, E> factory) {
+            int mask = keys.length - 1;
+            int i = hash(context) & mask;
+            Context key;
+            while ((key = keys[i]) != null) {
+                if (key.equals(context)) {
+                    @SuppressWarnings("unchecked")
+                    E value = (E) values[i];
+                    return value;
+                }
+                i = (i + 1) & mask;
+            }
+            E value = factory.apply(context);
+            keys[i] = context;
+            values[i] = value;
+            if (++size * 4 > keys.length * 3) {
+                resize();
+            }
+            return value;
+        }
+
+        Collection<E> values() {
+            List<E> result = new ArrayList<>(size);
+            for (Object value : values) {
+                if (value != null) {
+                    @SuppressWarnings("unchecked")
+                    E e = (E) value;
+                    result.add(e);
+                }
+            }
+            return result;
+        }
+
+        private void resize() {
+            Context[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new Context[oldKeys.length * 2];
+            values = new Object[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; ++j) {
+                Context key = oldKeys[j];
+                if (key != null) {
+                    int i = hash(key) & mask;
+                    while (keys[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = key;
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+
+        private static int hash(Context context) {
+            if (context instanceof Indexable indexable) {
+                return indexable.getIndex();
+            }
+            int h = context.hashCode();
+            return h ^ (h >>> 16);
+        }
+    }
+}
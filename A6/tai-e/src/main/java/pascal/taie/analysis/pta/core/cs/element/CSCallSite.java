@@ -25,6 +25,7 @@ package pascal.taie.analysis.pta.core.cs.element;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.util.Indexable;
 import pascal.taie.util.collection.Sets;
 
 import java.util.Collections;
@@ -33,10 +34,16 @@ import java.util.Set;
 /**
  * Represents context-sensitive call sites.
  */
-public class CSCallSite extends AbstractCSElement {
+public class CSCallSite extends AbstractCSElement implements Indexable {
 
     private final Invoke callSite;
 
+    /**
+     * Index of this call site, assigned by {@link ArrayBasedCSManager},
+     * or -1 if it is created by other managers.
+     */
+    private int index = -1;
+
     /**
      * Context-sensitive method which contains this CS call site.
      */
@@ -76,6 +83,15 @@ public class CSCallSite extends AbstractCSElement {
         return Collections.unmodifiableSet(edges);
     }
 
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
     @Override
     public String toString() {
         return context + ":" + callSite;
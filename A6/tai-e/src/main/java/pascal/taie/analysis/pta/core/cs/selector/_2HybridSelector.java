@@ -0,0 +1,103 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.selector;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.TrieContext;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Implementation of selective hybrid 2-object sensitivity with
+ * 1-object heap context (S-2obj+H).
+ * <p>
+ * Instance methods are analyzed with the receiver object and its heap
+ * context as in 2-object sensitivity. Static methods, which obtain no new
+ * context elements under object sensitivity, are analyzed with the call
+ * site and the most significant element of the caller's context, i.e.,
+ * the receiver object of the nearest instance method on the call chain.
+ * Heap contexts consist of the most significant element of the context
+ * of the allocating method.
+ */
+public class _2HybridSelector implements ContextSelector {
+
+    private final TrieContext.Factory<Object> factory;
+
+    public _2HybridSelector() {
+        this(new TrieContext.Factory<>());
+    }
+
+    /**
+     * @param factory the factory that makes the contexts, which may be
+     *                shared with other selectors.
+     */
+    public _2HybridSelector(TrieContext.Factory<Object> factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public Context getEmptyContext() {
+        return factory.getEmptyContext();
+    }
+
+    @Override
+    public Context selectContext(CSCallSite callSite, JMethod callee) {
+        Object elem = getMostSignificantElement(callSite.getContext());
+        return elem != null ?
+                factory.make(elem, callSite.getCallSite()) :
+                factory.make(callSite.getCallSite());
+    }
+
+    @Override
+    public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
+        return factory.append(recv.getContext(), recv.getObject(), 2);
+    }
+
+    @Override
+    public Context selectHeapContext(CSMethod method, Obj obj) {
+        Object elem = getMostSignificantElement(method.getContext());
+        return elem != null ? factory.make(elem) : getEmptyContext();
+    }
+
+    /**
+     * @return the most significant element of given context, i.e., the
+     * receiver object for contexts of instance methods, and the first
+     * element for contexts of static methods, which are ended by call sites.
+     * If the context is empty or consists of only a call site, returns null.
+     */
+    private static Object getMostSignificantElement(Context context) {
+        int length = context.getLength();
+        if (length == 0) {
+            return null;
+        }
+        Object last = context.getElementAt(length - 1);
+        if (last instanceof Invoke) {
+            return length >= 2 ? context.getElementAt(length - 2) : null;
+        }
+        return last;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.heap;
+
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches types against comma-separated type patterns:
+ * <ul>
+ *     <li>"T" matches type T,
+ *     <li>"P*" matches types whose names start with P, e.g., "java.lang.String*",
+ *     <li>"T+" matches T and all its subtypes, e.g., "java.lang.Throwable+".
+ * </ul>
+ * Patterns "T+" whose T is not a class type in the program are ignored.
+ */
+public class TypeMatcher {
+
+    private final TypeSystem typeSystem;
+
+    private final List<String> names = new ArrayList<>();
+
+    private final List<String> prefixes = new ArrayList<>();
+
+    private final List<ClassType> superTypes = new ArrayList<>();
+
+    /**
+     * Caches whether each type is matched.
+     */
+    private final Map<Type, Boolean> matched = Maps.newMap();
+
+    public TypeMatcher(String patterns, TypeSystem typeSystem) {
+        this.typeSystem = typeSystem;
+        for (String pattern : patterns.split(",")) {
+            pattern = pattern.strip();
+            if (pattern.endsWith("*")) {
+                prefixes.add(pattern.substring(0, pattern.length() - 1));
+            } else if (pattern.endsWith("+")) {
+                ClassType type = typeSystem.getClassType(
+                        pattern.substring(0, pattern.length() - 1));
+                if (type != null) {
+                    superTypes.add(type);
+                }
+            } else if (!pattern.isEmpty()) {
+                names.add(pattern);
+            }
+        }
+    }
+
+    /**
+     * @return true if given type is matched by any of the patterns.
+     */
+    public boolean matches(Type type) {
+        return matched.computeIfAbsent(type, this::doMatch);
+    }
+
+    private boolean doMatch(Type type) {
+        String name = type.getName();
+        return names.contains(name) ||
+                prefixes.stream().anyMatch(name::startsWith) ||
+                superTypes.stream().anyMatch(t -> typeSystem.isSubtype(t, type));
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.heap;
+
+import pascal.taie.World;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.stmt.New;
+
+/**
+ * Allocation-site based heap model which, in addition, merges the objects
+ * of selected types into one {@link MergedObj} per type.
+ * <p>
+ * The types are given by option "merge-types" as comma-separated patterns
+ * of {@link TypeMatcher}, e.g., "java.lang.String*,java.lang.Throwable+".
+ */
+public class TypeMergingHeapModel extends AllocationSiteBasedModel {
+
+    private final TypeMatcher mergedTypes;
+
+    public TypeMergingHeapModel(AnalysisOptions options) {
+        super(options);
+        mergedTypes = new TypeMatcher(options.getString("merge-types"),
+                World.get().getTypeSystem());
+    }
+
+    @Override
+    protected Obj doGetObj(New allocSite) {
+        return mergedTypes.matches(allocSite.getRValue().getType()) ?
+                getMergedObj(allocSite) : super.doGetObj(allocSite);
+    }
+}
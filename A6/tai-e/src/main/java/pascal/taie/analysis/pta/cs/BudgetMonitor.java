@@ -0,0 +1,131 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.config.AnalysisOptions;
+
+/**
+ * Monitors the budgets of pointer analysis.
+ * <p>
+ * The budgets are given by options "time-budget" (in seconds) and
+ * "pts-budget" (the total size of points-to sets of all pointers), both of
+ * which are unlimited if absent. When a budget is exceeded, the solver does
+ * not abort, but degrades context sensitivity of the heaviest methods,
+ * "degrade-step" methods at a time, and continues. After each degrade
+ * step, the budgets are re-armed, i.e., they are measured from the state
+ * at that step, so that the next step happens only when the analysis
+ * again grows by a whole budget.
+ */
+class BudgetMonitor {
+
+    private static final Logger logger = LogManager.getLogger(BudgetMonitor.class);
+
+    /**
+     * Default number of methods degraded each time a budget is exceeded.
+     */
+    private static final int DEFAULT_DEGRADE_STEP = 10;
+
+    private final long timeBudget;
+
+    private final long ptsBudget;
+
+    private final int degradeStep;
+
+    /**
+     * Start time of current budget period.
+     */
+    private long startTime;
+
+    /**
+     * Total size of points-to sets at the start of current budget period.
+     */
+    private long basePtsSize = 0;
+
+    private int degradations = 0;
+
+    private int degradedMethods = 0;
+
+    BudgetMonitor(AnalysisOptions options) {
+        timeBudget = getLong(options, "time-budget") * 1000;
+        ptsBudget = getLong(options, "pts-budget");
+        Object step = options.get("degrade-step");
+        degradeStep = step instanceof Integer n && n > 0 ?
+                n : DEFAULT_DEGRADE_STEP;
+    }
+
+    private static long getLong(AnalysisOptions options, String key) {
+        Object value = options.get(key);
+        return value instanceof Number n && n.longValue() > 0 ?
+                n.longValue() : 0;
+    }
+
+    /**
+     * @return true if any budget is given.
+     */
+    boolean isEnabled() {
+        return timeBudget > 0 || ptsBudget > 0;
+    }
+
+    void start() {
+        startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * @param ptsSize current total size of points-to sets.
+     * @return true if any budget is exceeded.
+     */
+    boolean isExceeded(long ptsSize) {
+        return (timeBudget > 0 &&
+                System.currentTimeMillis() - startTime > timeBudget) ||
+                (ptsBudget > 0 && ptsSize - basePtsSize > ptsBudget);
+    }
+
+    /**
+     * @return number of methods to be degraded each time.
+     */
+    int getDegradeStep() {
+        return degradeStep;
+    }
+
+    /**
+     * Records a degrade step and re-arms the budgets.
+     *
+     * @param nMethods number of methods degraded in this step.
+     * @param ptsSize  current total size of points-to sets.
+     */
+    void recordDegraded(int nMethods, long ptsSize) {
+        ++degradations;
+        degradedMethods += nMethods;
+        startTime = System.currentTimeMillis();
+        basePtsSize = ptsSize;
+    }
+
+    void report() {
+        if (degradations > 0) {
+            logger.warn("Budget exceeded, context sensitivity of {} methods" +
+                    " is degraded in {} times", degradedMethods, degradations);
+        }
+    }
+}
@@ -23,18 +23,31 @@
 package pascal.taie.analysis.pta.cs;
 
 import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.pta.LazyPointerAnalysisResult;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.context.TrieContext;
 import pascal.taie.analysis.pta.core.cs.selector.CISelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.cs.selector.SelectiveSelector;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.TypeMergingHeapModel;
+import pascal.taie.analysis.pta.demand.DemandDrivenPTA;
 import pascal.taie.analysis.pta.plugin.ResultProcessor;
+import pascal.taie.analysis.pta.toolkit.scaler.Scaler;
+import pascal.taie.analysis.pta.toolkit.zipper.Zipper;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.config.ConfigException;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.Strings;
+import pascal.taie.util.collection.Maps;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Context-sensitive pointer analysis.
@@ -43,6 +56,15 @@ public class CSPTA extends ProgramAnalysis {
 
     public static final String ID = "cspta";
 
+    /**
+     * Options of the main analysis that are passed to the pre-analysis,
+     * i.e., the options of the heap model.
+     */
+    private static final List<String> PRE_ANALYSIS_KEYS = List.of(
+            "merge-string-constants", "merge-string-objects",
+            "merge-string-builders", "merge-exception-objects",
+            "merge-types");
+
     public CSPTA(AnalysisConfig config) {
         super(config);
     }
@@ -50,18 +72,122 @@ public class CSPTA extends ProgramAnalysis {
     @Override
     public PointerAnalysisResult analyze() {
         AnalysisOptions options = getOptions();
-        Solver solver = new Solver(options,
-                new AllocationSiteBasedModel(options),
-                getContextSelector(options.getString("cs")));
+        HeapModel heapModel = getHeapModel(options);
+        Solver solver = new Solver(options, heapModel,
+                getContextSelector(options));
+        if (options.get("demand-budget") instanceof Integer budget) {
+            return analyzeOnDemand(options, heapModel, solver, budget);
+        }
+        return solve(options, solver);
+    }
+
+    private static PointerAnalysisResult solve(AnalysisOptions options, Solver solver) {
         solver.solve();
         PointerAnalysisResult result = solver.getResult();
         ResultProcessor.process(options, result);
         return result;
     }
 
-    private static ContextSelector getContextSelector(String cs) {
+    /**
+     * Defers the main analysis, and stores a demand-driven analysis in
+     * the returned result, which can be retrieved by
+     * {@link DemandDrivenPTA#RESULT_KEY}. The demand-driven analysis
+     * matches calls and returns on the call graph of a context-insensitive
+     * pre-analysis, and answers points-to queries of single variables
+     * within given budget. The main analysis runs only when a query
+     * exceeds the budget or a client queries the returned result directly.
+     */
+    private static PointerAnalysisResult analyzeOnDemand(
+            AnalysisOptions options, HeapModel heapModel,
+            Solver solver, int budget) {
+        LazyPointerAnalysisResult result = new LazyPointerAnalysisResult(
+                () -> solve(options, solver));
+        result.storeResult(DemandDrivenPTA.RESULT_KEY, new DemandDrivenPTA(
+                runPreAnalysis(options).getCallGraph(), heapModel,
+                budget > 0 ? budget : DemandDrivenPTA.DEFAULT_BUDGET,
+                result::get));
+        return result;
+    }
+
+    private static HeapModel getHeapModel(AnalysisOptions options) {
+        return options.getString("merge-types") != null ?
+                new TypeMergingHeapModel(options) :
+                new AllocationSiteBasedModel(options);
+    }
+
+    private static ContextSelector getContextSelector(AnalysisOptions options) {
+        String cs = options.getString("cs");
+        if (cs.equals("scaler")) {
+            return getScalerSelector(options);
+        } else if (cs.equals("zipper")) {
+            return getZipperSelector(options);
+        } else {
+            return makeContextSelector(cs, new TrieContext.Factory<>());
+        }
+    }
+
+    /**
+     * Runs a context-insensitive pre-analysis, and lets Scaler select
+     * context sensitivity variant for each method based on the
+     * pre-analysis result. The total scalability threshold of Scaler is
+     * given by option "scaler-tst".
+     */
+    private static ContextSelector getScalerSelector(AnalysisOptions options) {
+        PointerAnalysisResult preResult = runPreAnalysis(options);
+        Object tst = options.get("scaler-tst");
+        Scaler scaler = tst instanceof Number n ?
+                new Scaler(preResult, n.longValue()) :
+                new Scaler(preResult);
+        TrieContext.Factory<Object> factory = new TrieContext.Factory<>();
+        Map<String, ContextSelector> variants = Maps.newMap();
+        Map<JMethod, ContextSelector> selectors = Maps.newMap();
+        scaler.selectContext().forEach((method, variant) ->
+                selectors.put(method, variants.computeIfAbsent(variant,
+                        v -> makeContextSelector(v, factory))));
+        return new SelectiveSelector(selectors,
+                variants.computeIfAbsent("ci", v -> new CISelector(factory)));
+    }
+
+    /**
+     * Runs a context-insensitive pre-analysis, and lets Zipper select
+     * precision-critical methods based on the pre-analysis result.
+     * The precision-critical methods are analyzed with the context
+     * sensitivity variant given by option "zipper-cs" (2-obj by default),
+     * and other methods are analyzed context-insensitively.
+     */
+    private static ContextSelector getZipperSelector(AnalysisOptions options) {
+        PointerAnalysisResult preResult = runPreAnalysis(options);
+        Set<JMethod> pcms = new Zipper(preResult).selectPrecisionCriticalMethods();
+        String variant = options.getString("zipper-cs");
+        TrieContext.Factory<Object> factory = new TrieContext.Factory<>();
+        ContextSelector selector = makeContextSelector(
+                variant != null ? variant : "2-obj", factory);
+        Map<JMethod, ContextSelector> selectors = Maps.newMap();
+        pcms.forEach(m -> selectors.put(m, selector));
+        return new SelectiveSelector(selectors, new CISelector(factory));
+    }
+
+    /**
+     * Runs a context-insensitive pre-analysis with the heap model of
+     * the main analysis. Other options of the main analysis, e.g.,
+     * profiling, budgets, scope, snapshot and parallel settings, are
+     * not applied to the pre-analysis.
+     */
+    private static PointerAnalysisResult runPreAnalysis(AnalysisOptions options) {
+        Map<String, Object> preOptions = Maps.newMap();
+        PRE_ANALYSIS_KEYS.forEach(key -> preOptions.put(key, options.get(key)));
+        preOptions.put("cs", "ci");
+        AnalysisOptions preAnalysisOptions = new AnalysisOptions(preOptions);
+        Solver preSolver = new Solver(preAnalysisOptions,
+                getHeapModel(preAnalysisOptions), new CISelector());
+        preSolver.solve();
+        return preSolver.getResult();
+    }
+
+    private static ContextSelector makeContextSelector(
+            String cs, TrieContext.Factory<Object> factory) {
         if (cs.equals("ci")) {
-            return new CISelector();
+            return new CISelector(factory);
         } else {
             try {
                 // we expect that the argument of context-sensitivity variant
@@ -73,8 +199,8 @@ public class CSPTA extends ProgramAnalysis {
                 String selectorName = "pascal.taie.analysis.pta.core.cs.selector." +
                         "_" + k + kind + "Selector";
                 Class<?> c = Class.forName(selectorName);
-                Constructor<?> ctor = c.getConstructor();
-                return (ContextSelector) ctor.newInstance();
+                Constructor<?> ctor = c.getConstructor(TrieContext.Factory.class);
+                return (ContextSelector) ctor.newInstance(factory);
             } catch (RuntimeException e) {
                 throw new ConfigException("Unexpected context-sensitivity variants: " + cs, e);
             } catch (ClassNotFoundException | NoSuchMethodException |
@@ -0,0 +1,298 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Profiles context explosion of pointer analysis.
+ * <p>
+ * The profiler is enabled by option "profile", whose value is the path of
+ * the JSON file to be written. During the analysis, the solver reports new
+ * CS methods and the growth of points-to sets to the profiler, which keeps
+ * per-method counters of contexts, CS variables (with non-empty points-to
+ * sets) and points-to relations up to date. The solver also takes samples
+ * periodically, each of which records the global numbers of contexts,
+ * CS elements and points-to relations, together with the top contributing
+ * methods at that time. After the analysis, the profiler prints the top
+ * contributing methods and allocation sites, ranked by the size of points-to
+ * relations, and writes the samples and the rankings to the JSON file.
+ * The number of reported contributors is given by option "profile-top".
+ */
+class ContextProfiler {
+
+    private static final Logger logger = LogManager.getLogger(ContextProfiler.class);
+
+    /**
+     * Number of work-list entries processed between two samples.
+     */
+    static final int SAMPLE_INTERVAL = 10000;
+
+    private static final int DEFAULT_TOP = 20;
+
+    /**
+     * Orders methods by the size of points-to sets in descending order.
+     */
+    private static final Comparator<MethodStat> METHOD_ORDER =
+            Comparator.comparingLong(MethodStat::ptsSize).reversed()
+                    .thenComparing(m -> m.method().getSignature());
+
+    private final String file;
+
+    private final int top;
+
+    private final List<Sample> samples = new ArrayList<>();
+
+    /**
+     * Counters of the methods, updated as the analysis proceeds.
+     */
+    private final Map<JMethod, MethodCounter> counters = Maps.newMap();
+
+    /**
+     * Number of CS variables with non-empty points-to sets.
+     */
+    private int csVars;
+
+    private long startTime;
+
+    ContextProfiler(AnalysisOptions options) {
+        file = options.getString("profile");
+        Object top = options.get("profile-top");
+        this.top = top instanceof Integer n && n > 0 ? n : DEFAULT_TOP;
+    }
+
+    boolean isEnabled() {
+        return file != null;
+    }
+
+    void start() {
+        startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Records a new reachable CS method.
+     */
+    void onNewCSMethod(CSMethod csMethod) {
+        ++getCounter(csMethod.getMethod()).contexts;
+    }
+
+    /**
+     * Records that the points-to set of given pointer grows by given size.
+     * This method should be called after the points-to set has grown.
+     */
+    void onGrowth(Pointer pointer, int size) {
+        if (pointer instanceof CSVar csVar) {
+            MethodCounter counter = getCounter(csVar.getVar().getMethod());
+            if (pointer.getPointsToSet().size() == size) {
+                // the points-to set was empty before
+                ++counter.csVars;
+                ++csVars;
+            }
+            counter.ptsSize += size;
+        }
+    }
+
+    private MethodCounter getCounter(JMethod method) {
+        return counters.computeIfAbsent(method, m -> new MethodCounter());
+    }
+
+    /**
+     * Takes a sample of current state of the analysis.
+     */
+    void sample(CSManager csManager, CSCallGraph callGraph,
+                long iterations, long ptsSize) {
+        samples.add(new Sample(System.currentTimeMillis() - startTime,
+                iterations, callGraph.getNumberOfMethods(), csVars,
+                csManager.getObjects().size(), ptsSize, getTopMethods()));
+    }
+
+    /**
+     * Prints the ranked report and writes the JSON file.
+     */
+    void report(CSManager csManager, CSCallGraph callGraph,
+                long iterations, long ptsSize) {
+        sample(csManager, callGraph, iterations, ptsSize);
+        List<MethodStat> methods = getTopMethods();
+        List<ObjStat> objs = collectObjStats(csManager)
+                .stream().limit(top).toList();
+        System.out.println("-------------- Context profile: --------------");
+        System.out.printf("Top %d methods (#contexts, #CS vars, #points-to):%n", top);
+        methods.forEach(m -> System.out.printf("%10d %10d %12d  %s%n",
+                m.contexts(), m.csVars(), m.ptsSize(), m.method()));
+        System.out.printf("Top %d allocation sites (#heap contexts, #pointed-by):%n", top);
+        objs.forEach(o -> System.out.printf("%10d %12d  %s%n",
+                o.contexts(), o.pointedBy(), o.obj()));
+        System.out.println("----------------------------------------");
+        writeJSON(methods, objs);
+    }
+
+    /**
+     * @return statistics of the top methods, sorted by the size of points-to
+     * sets of the methods' variables in descending order.
+     */
+    private List<MethodStat> getTopMethods() {
+        // keeps the top methods in a bounded heap whose head is the smallest
+        PriorityQueue<MethodStat> heap = new PriorityQueue<>(top + 1, METHOD_ORDER.reversed());
+        counters.forEach((method, c) -> {
+            heap.add(new MethodStat(method, c.contexts, c.csVars, c.ptsSize));
+            if (heap.size() > top) {
+                heap.poll();
+            }
+        });
+        List<MethodStat> methods = new ArrayList<>(heap);
+        methods.sort(METHOD_ORDER);
+        return methods;
+    }
+
+    /**
+     * @return statistics of each allocation site, sorted by the number of
+     * pointers that point to its CS objects in descending order.
+     */
+    private static List<ObjStat> collectObjStats(CSManager csManager) {
+        Map<Obj, long[]> counts = Maps.newMap();
+        csManager.getObjects().forEach(csObj ->
+                ++counts.computeIfAbsent(csObj.getObject(), o -> new long[2])[0]);
+        Stream.<Collection<? extends Pointer>>of(csManager.getCSVars(),
+                        csManager.getStaticFields(), csManager.getInstanceFields(),
+                        csManager.getArrayIndexes())
+                .flatMap(Collection::stream)
+                .map(Pointer::getPointsToSet)
+                .forEach(pts -> {
+                    for (CSObj csObj : pts) {
+                        ++counts.computeIfAbsent(csObj.getObject(), o -> new long[2])[1];
+                    }
+                });
+        return counts.entrySet()
+                .stream()
+                .map(e -> new ObjStat(e.getKey(), e.getValue()[0], e.getValue()[1]))
+                .sorted(Comparator.comparingLong(ObjStat::pointedBy).reversed()
+                        .thenComparing(o -> o.obj().toString()))
+                .toList();
+    }
+
+    private void writeJSON(List<MethodStat> methods, List<ObjStat> objs) {
+        logger.info("Writing context profile to {}", file);
+        try (PrintStream out = new PrintStream(file)) {
+            out.println("{");
+            out.println("  \"methods\": [");
+            for (int i = 0; i < methods.size(); ++i) {
+                out.print("    " + toJSON(methods.get(i)));
+                out.println(i + 1 < methods.size() ? "," : "");
+            }
+            out.println("  ],");
+            out.println("  \"allocationSites\": [");
+            for (int i = 0; i < objs.size(); ++i) {
+                ObjStat o = objs.get(i);
+                out.printf("    {\"obj\": %s, \"contexts\": %d, \"pointedBy\": %d}",
+                        quote(o.obj().toString()), o.contexts(), o.pointedBy());
+                out.println(i + 1 < objs.size() ? "," : "");
+            }
+            out.println("  ],");
+            out.println("  \"samples\": [");
+            for (int i = 0; i < samples.size(); ++i) {
+                Sample s = samples.get(i);
+                out.printf("    {\"time\": %d, \"iterations\": %d," +
+                                " \"csMethods\": %d, \"csVars\": %d, \"csObjs\": %d," +
+                                " \"ptsSize\": %d, \"top\": [",
+                        s.time(), s.iterations(), s.csMethods(), s.csVars(),
+                        s.csObjs(), s.ptsSize());
+                for (int j = 0; j < s.top().size(); ++j) {
+                    out.print((j > 0 ? ", " : "") + toJSON(s.top().get(j)));
+                }
+                out.print("]}");
+                out.println(i + 1 < samples.size() ? "," : "");
+            }
+            out.println("  ]");
+            out.println("}");
+        } catch (FileNotFoundException e) {
+            throw new AnalysisException("Failed to write context profile to " + file, e);
+        }
+    }
+
+    private static String toJSON(MethodStat m) {
+        return String.format("{\"method\": %s, \"contexts\": %d, \"csVars\": %d, \"ptsSize\": %d}",
+                quote(m.method().getSignature()), m.contexts(), m.csVars(), m.ptsSize());
+    }
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private record MethodStat(JMethod method, int contexts, int csVars, long ptsSize) {
+    }
+
+    private static class MethodCounter {
+
+        private int contexts;
+
+        private int csVars;
+
+        private long ptsSize;
+    }
+
+    private record ObjStat(Obj obj, long contexts, long pointedBy) {
+    }
+
+    private record Sample(long time, long iterations, int csMethods, int csVars,
+                          int csObjs, long ptsSize, List<MethodStat> top) {
+    }
+}
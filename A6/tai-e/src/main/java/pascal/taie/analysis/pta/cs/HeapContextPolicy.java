@@ -0,0 +1,100 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.World;
+import pascal.taie.analysis.pta.core.heap.TypeMatcher;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides which objects are given the empty heap context regardless of
+ * the context selector, so that the number of CS objects, and the field
+ * and array pointers of them, stays bounded for the types whose contents
+ * do not benefit from heap contexts.
+ * <p>
+ * The types are given by option "empty-heap-context" as comma-separated
+ * patterns of {@link TypeMatcher}, the same as the ones of option
+ * "merge-types". In addition, pattern "default" matches boxed primitive
+ * types, java.lang.String and arrays of primitive types. If the option
+ * is absent, all objects are given heap contexts by the context selector.
+ */
+class HeapContextPolicy {
+
+    private static final String DEFAULT_PATTERN = "default";
+
+    private static final Set<String> DEFAULT_TYPES = Set.of(
+            "java.lang.Boolean", "java.lang.Byte", "java.lang.Character",
+            "java.lang.Short", "java.lang.Integer", "java.lang.Long",
+            "java.lang.Float", "java.lang.Double", "java.lang.String");
+
+    private final boolean includeDefault;
+
+    /**
+     * Matcher of the types given by patterns, or null if the option is absent.
+     */
+    private final TypeMatcher matcher;
+
+    /**
+     * Caches whether the objects of each type have empty heap context.
+     */
+    private final Map<Type, Boolean> emptyContextTypes = Maps.newMap();
+
+    HeapContextPolicy(AnalysisOptions options) {
+        String types = options.getString("empty-heap-context");
+        if (types == null) {
+            includeDefault = false;
+            matcher = null;
+            return;
+        }
+        includeDefault = Arrays.stream(types.split(","))
+                .map(String::strip)
+                .anyMatch(DEFAULT_PATTERN::equals);
+        matcher = new TypeMatcher(types, World.get().getTypeSystem());
+    }
+
+    /**
+     * @return true if objects of given type should be given
+     * the empty heap context.
+     */
+    boolean hasEmptyContext(Type type) {
+        return matcher != null &&
+                emptyContextTypes.computeIfAbsent(type, this::matches);
+    }
+
+    private boolean matches(Type type) {
+        if (includeDefault && (DEFAULT_TYPES.contains(type.getName()) ||
+                (type instanceof ArrayType array &&
+                        array.baseType() instanceof PrimitiveType))) {
+            return true;
+        }
+        return matcher.matches(type);
+    }
+}
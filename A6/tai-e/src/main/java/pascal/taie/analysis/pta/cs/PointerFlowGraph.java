@@ -25,19 +25,32 @@ package pascal.taie.analysis.pta.cs;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.Graph;
 
+import java.util.Collections;
 import java.util.Set;
 
 /**
  * Represents pointer flow graph in context-sensitive pointer analysis.
  */
-class PointerFlowGraph {
+class PointerFlowGraph implements Graph<Pointer> {
+
+    /**
+     * Set of pointers (nodes) which have at least one edge in PFG.
+     */
+    private final Set<Pointer> nodes = Sets.newSet();
 
     /**
      * Map from a pointer (node) to its successors in PFG.
      */
     private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
 
+    /**
+     * Map from a pointer (node) to its predecessors in PFG.
+     */
+    private final MultiMap<Pointer, Pointer> predecessors = Maps.newMultiMap();
+
     /**
      * Adds an edge (source -> target) to this PFG.
      *
@@ -45,13 +58,44 @@ class PointerFlowGraph {
      * otherwise false.
      */
     boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+        if (successors.put(source, target)) {
+            predecessors.put(target, source);
+            nodes.add(source);
+            nodes.add(target);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean hasNode(Pointer pointer) {
+        return nodes.contains(pointer);
+    }
+
+    @Override
+    public boolean hasEdge(Pointer source, Pointer target) {
+        return successors.contains(source, target);
+    }
+
+    /**
+     * @return predecessors of given pointer in the PFG.
+     */
+    @Override
+    public Set<Pointer> getPredsOf(Pointer pointer) {
+        return predecessors.get(pointer);
     }
 
     /**
      * @return successors of given pointer in the PFG.
      */
-    Set<Pointer> getSuccsOf(Pointer pointer) {
+    @Override
+    public Set<Pointer> getSuccsOf(Pointer pointer) {
         return successors.get(pointer);
     }
+
+    @Override
+    public Set<Pointer> getNodes() {
+        return Collections.unmodifiableSet(nodes);
+    }
 }
@@ -29,9 +29,10 @@ import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
-import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
+import pascal.taie.analysis.pta.ProjectingPointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.CSCallGraph;
 import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSManager;
@@ -39,11 +40,11 @@ import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.cs.element.CSVar;
 import pascal.taie.analysis.pta.core.cs.element.InstanceField;
-import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.core.cs.element.StaticField;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.MockObj;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
@@ -60,18 +61,64 @@ import pascal.taie.ir.stmt.StoreArray;
 import pascal.taie.ir.stmt.StoreField;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ReferenceType;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+
+import java.util.List;
+import java.util.Map;
 
 class Solver {
 
     private static final Logger logger = LogManager.getLogger(Solver.class);
 
+    /**
+     * Description of the objects that summarize the results of
+     * calls to out-of-scope methods.
+     */
+    private static final String STUB_DESC = "ScopeStubObj";
+
     private final AnalysisOptions options;
 
     private final HeapModel heapModel;
 
     private final ContextSelector contextSelector;
 
+    private final ScopeFilter scopeFilter;
+
+    private final HeapContextPolicy heapContextPolicy;
+
+    private final BudgetMonitor budgetMonitor;
+
+    private final ContextProfiler profiler;
+
+    /**
+     * Selector that degrades context sensitivity when budgets are
+     * exceeded, or null if no budget is given.
+     */
+    private final DegradingSelector degradingSelector;
+
+    /**
+     * Total size of points-to sets of all pointers.
+     */
+    private long ptsSize = 0;
+
+    /**
+     * Total size of points-to sets of variables of each method that is
+     * not degraded yet, maintained only if any budget is given.
+     */
+    private final Map<JMethod, Long> methodPtsSizes = Maps.newMap();
+
+    /**
+     * Number of processed work-list entries.
+     */
+    private long iterations = 0;
+
+    /**
+     * Map from call sites to the objects summarizing their results.
+     */
+    private final Map<Invoke, Obj> stubObjs = Maps.newMap();
+
     private CSManager csManager;
 
     private CSCallGraph callGraph;
@@ -80,24 +127,52 @@ class Solver {
 
     private WorkList workList;
 
+    /**
+     * Propagator used in parallel mode, or null if the solver runs
+     * in the sequential mode.
+     */
+    private WavePropagator wavePropagator;
+
     private PointerAnalysisResult result;
 
     Solver(AnalysisOptions options, HeapModel heapModel,
            ContextSelector contextSelector) {
         this.options = options;
         this.heapModel = heapModel;
-        this.contextSelector = contextSelector;
+        this.scopeFilter = new ScopeFilter(options);
+        this.heapContextPolicy = new HeapContextPolicy(options);
+        this.budgetMonitor = new BudgetMonitor(options);
+        this.profiler = new ContextProfiler(options);
+        if (budgetMonitor.isEnabled()) {
+            this.degradingSelector = new DegradingSelector(contextSelector);
+            this.contextSelector = degradingSelector;
+        } else {
+            this.degradingSelector = null;
+            this.contextSelector = contextSelector;
+        }
     }
 
     void solve() {
         initialize();
         analyze();
+        scopeFilter.report();
+        budgetMonitor.report();
+        if (profiler.isEnabled()) {
+            profiler.report(csManager, callGraph, iterations, ptsSize);
+        }
     }
 
     private void initialize() {
-        csManager = new MapBasedCSManager();
-        callGraph = new CSCallGraph(csManager);
+        budgetMonitor.start();
+        profiler.start();
         pointerFlowGraph = new PointerFlowGraph();
+        // CS elements are only created while draining the work list, which
+        // runs on a single thread, so the array-based manager serves both modes
+        csManager = new ArrayBasedCSManager();
+        if (options.getBooleanOrDefault("parallel", false)) {
+            wavePropagator = new WavePropagator(pointerFlowGraph, getThreads());
+        }
+        callGraph = new CSCallGraph(csManager);
         workList = new WorkList();
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
@@ -111,7 +186,13 @@ class Solver {
      * Processes new reachable context-sensitive method.
      */
     private void addReachable(CSMethod csMethod) {
-        // TODO - finish me
+        if (callGraph.addReachableMethod(csMethod)) {
+            if (profiler.isEnabled()) {
+                profiler.onNewCSMethod(csMethod);
+            }
+            StmtProcessor stmtProcessor = new StmtProcessor(csMethod);
+            csMethod.getMethod().getIR().forEach(stmt -> stmt.accept(stmtProcessor));
+        }
     }
 
     /**
@@ -128,22 +209,180 @@ class Solver {
             this.context = csMethod.getContext();
         }
 
-        // TODO - if you choose to implement addReachable()
-        //  via visitor pattern, then finish me
+        @Override
+        public Void visit(New stmt) {
+            Obj obj = heapModel.getObj(stmt);
+            Context heapContext = heapContextPolicy.hasEmptyContext(obj.getType()) ?
+                    contextSelector.getEmptyContext() :
+                    contextSelector.selectHeapContext(csMethod, obj);
+            CSObj csObj = csManager.getCSObj(heapContext, obj);
+            workList.addEntry(csManager.getCSVar(context, stmt.getLValue()),
+                    PointsToSetFactory.make(csObj));
+            return null;
+        }
+
+        @Override
+        public Void visit(Copy stmt) {
+            addPFGEdge(csManager.getCSVar(context, stmt.getRValue()),
+                    csManager.getCSVar(context, stmt.getLValue()));
+            return null;
+        }
+
+        @Override
+        public Void visit(LoadField stmt) {
+            if (stmt.isStatic()) {
+                JField field = stmt.getFieldRef().resolve();
+                addPFGEdge(csManager.getStaticField(field),
+                        csManager.getCSVar(context, stmt.getLValue()));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(StoreField stmt) {
+            if (stmt.isStatic()) {
+                JField field = stmt.getFieldRef().resolve();
+                addPFGEdge(csManager.getCSVar(context, stmt.getRValue()),
+                        csManager.getStaticField(field));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Invoke stmt) {
+            if (stmt.isStatic()) {
+                JMethod callee = resolveCallee(null, stmt);
+                if (!scopeFilter.isInScope(callee)) {
+                    stubCall(stmt, callee, context);
+                    return null;
+                }
+                CSCallSite csCallSite = csManager.getCSCallSite(context, stmt);
+                Context calleeContext = contextSelector.selectContext(csCallSite, callee);
+                processCallEdge(csCallSite, csManager.getCSMethod(calleeContext, callee));
+            }
+            return null;
+        }
     }
 
     /**
      * Adds an edge "source -> target" to the PFG.
      */
     private void addPFGEdge(Pointer source, Pointer target) {
-        // TODO - finish me
+        if (pointerFlowGraph.addEdge(source, target)) {
+            PointsToSet pts = source.getPointsToSet();
+            if (!pts.isEmpty()) {
+                workList.addEntry(target, pts);
+            }
+        }
     }
 
     /**
      * Processes work-list entries until the work-list is empty.
      */
     private void analyze() {
-        // TODO - finish me
+        if (wavePropagator != null) {
+            analyzeInWaves();
+            return;
+        }
+        while (!workList.isEmpty()) {
+            WorkList.Entry entry = workList.pollEntry();
+            PointsToSet delta = propagate(entry.pointer(), entry.pointsToSet());
+            if (entry.pointer() instanceof CSVar csVar) {
+                processNewObjects(csVar, delta);
+            }
+            ++iterations;
+            checkBudgets();
+            if (profiler.isEnabled() &&
+                    iterations % ContextProfiler.SAMPLE_INTERVAL == 0) {
+                profiler.sample(csManager, callGraph, iterations, ptsSize);
+            }
+        }
+    }
+
+    /**
+     * If any budget is exceeded, degrades the context sensitivity of the
+     * methods with the largest total size of points-to sets of their
+     * variables, i.e., switches them to context insensitivity.
+     */
+    private void checkBudgets() {
+        if (degradingSelector == null || !budgetMonitor.isExceeded(ptsSize)) {
+            return;
+        }
+        List<JMethod> heaviest = methodPtsSizes.entrySet()
+                .stream()
+                // ties are broken by signatures to keep the result deterministic
+                .sorted(Map.Entry.<JMethod, Long>comparingByValue().reversed()
+                        .thenComparing(e -> e.getKey().getSignature()))
+                .limit(budgetMonitor.getDegradeStep())
+                .map(Map.Entry::getKey)
+                .toList();
+        heaviest.forEach(method -> {
+            degradingSelector.degrade(method);
+            methodPtsSizes.remove(method);
+        });
+        budgetMonitor.recordDegraded(heaviest.size(), ptsSize);
+        logger.debug("Degraded context sensitivity of {}", heaviest);
+    }
+
+    /**
+     * Parallel counterpart of {@link #analyze()}. Each round drains the
+     * work list, propagates the collected deltas over the current PFG
+     * in parallel waves, and then processes the new objects of changed
+     * variables, which may add new PFG edges and work-list entries
+     * for the next round.
+     */
+    private void analyzeInWaves() {
+        int rounds = 0;
+        while (!workList.isEmpty()) {
+            ++rounds;
+            Map<Pointer, PointsToSet> pending = Maps.newMap();
+            while (!workList.isEmpty()) {
+                WorkList.Entry entry = workList.pollEntry();
+                ++iterations;
+                pending.computeIfAbsent(entry.pointer(), p -> PointsToSetFactory.make())
+                        .addAll(entry.pointsToSet());
+            }
+            wavePropagator.propagate(pending).forEach((pointer, delta) -> {
+                recordGrowth(pointer, delta.size());
+                if (pointer instanceof CSVar csVar) {
+                    processNewObjects(csVar, delta);
+                }
+            });
+            checkBudgets();
+            if (profiler.isEnabled()) {
+                profiler.sample(csManager, callGraph, iterations, ptsSize);
+            }
+        }
+        wavePropagator.shutdown();
+        logger.info("Wave propagation finished in {} rounds", rounds);
+    }
+
+    /**
+     * Processes the objects newly pointed to by given variable,
+     * i.e., field/array accesses and instance calls on the variable.
+     */
+    private void processNewObjects(CSVar csVar, PointsToSet delta) {
+        Var var = csVar.getVar();
+        Context context = csVar.getContext();
+        for (CSObj obj : delta) {
+            for (StoreField store : var.getStoreFields()) {
+                addPFGEdge(csManager.getCSVar(context, store.getRValue()),
+                        csManager.getInstanceField(obj, store.getFieldRef().resolve()));
+            }
+            for (LoadField load : var.getLoadFields()) {
+                addPFGEdge(csManager.getInstanceField(obj, load.getFieldRef().resolve()),
+                        csManager.getCSVar(context, load.getLValue()));
+            }
+            for (StoreArray store : var.getStoreArrays()) {
+                addPFGEdge(csManager.getCSVar(context, store.getRValue()),
+                        csManager.getArrayIndex(obj));
+            }
+            for (LoadArray load : var.getLoadArrays()) {
+                addPFGEdge(csManager.getArrayIndex(obj),
+                        csManager.getCSVar(context, load.getLValue()));
+            }
+            processCall(csVar, obj);
+        }
     }
 
     /**
@@ -151,8 +390,35 @@ class Solver {
      * returns the difference set of pointsToSet and pt(pointer).
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
-        // TODO - finish me
-        return null;
+        PointsToSet delta = PointsToSetFactory.make();
+        PointsToSet pts = pointer.getPointsToSet();
+        pointsToSet.forEach(obj -> {
+            if (pts.addObject(obj)) {
+                delta.addObject(obj);
+            }
+        });
+        if (!delta.isEmpty()) {
+            recordGrowth(pointer, delta.size());
+            pointerFlowGraph.getSuccsOf(pointer).forEach(succ ->
+                    workList.addEntry(succ, delta));
+        }
+        return delta;
+    }
+
+    /**
+     * Records that the points-to set of given pointer grows by given size.
+     */
+    private void recordGrowth(Pointer pointer, int size) {
+        ptsSize += size;
+        if (profiler.isEnabled()) {
+            profiler.onGrowth(pointer, size);
+        }
+        if (degradingSelector != null && pointer instanceof CSVar csVar) {
+            JMethod method = csVar.getVar().getMethod();
+            if (!degradingSelector.isDegraded(method)) {
+                methodPtsSizes.merge(method, (long) size, Long::sum);
+            }
+        }
     }
 
     /**
@@ -162,7 +428,67 @@ class Solver {
      * @param recvObj set of new discovered objects pointed by the variable.
      */
     private void processCall(CSVar recv, CSObj recvObj) {
-        // TODO - finish me
+        for (Invoke callSite : recv.getVar().getInvokes()) {
+            JMethod callee = resolveCallee(recvObj, callSite);
+            if (callee == null) {
+                continue;
+            }
+            if (!scopeFilter.isInScope(callee)) {
+                stubCall(callSite, callee, recv.getContext());
+                continue;
+            }
+            CSCallSite csCallSite = csManager.getCSCallSite(recv.getContext(), callSite);
+            Context calleeContext = contextSelector.selectContext(
+                    csCallSite, recvObj, callee);
+            CSMethod csCallee = csManager.getCSMethod(calleeContext, callee);
+            workList.addEntry(csManager.getCSVar(calleeContext, callee.getIR().getThis()),
+                    PointsToSetFactory.make(recvObj));
+            processCallEdge(csCallSite, csCallee);
+        }
+    }
+
+    /**
+     * Summarizes a call to out-of-scope method: the callee is not analyzed,
+     * and the result of the call points to a mock object of the return type.
+     */
+    private void stubCall(Invoke callSite, JMethod callee, Context context) {
+        scopeFilter.recordSkipped(callSite, callee);
+        Var lhs = callSite.getLValue();
+        if (lhs != null && callee.getReturnType() instanceof ReferenceType) {
+            Obj obj = stubObjs.computeIfAbsent(callSite, site -> new MockObj(
+                    STUB_DESC, site, callee.getReturnType(), site.getContainer()));
+            CSObj csObj = csManager.getCSObj(contextSelector.getEmptyContext(), obj);
+            workList.addEntry(csManager.getCSVar(context, lhs),
+                    PointsToSetFactory.make(csObj));
+        }
+    }
+
+    /**
+     * Adds call edge "csCallSite -> csCallee" to the call graph, and
+     * if the edge is new, connects arguments and return values.
+     */
+    private void processCallEdge(CSCallSite csCallSite, CSMethod csCallee) {
+        Invoke callSite = csCallSite.getCallSite();
+        CallKind kind = CallGraphs.getCallKind(callSite);
+        if (callGraph.addEdge(new Edge<>(kind, csCallSite, csCallee))) {
+            addReachable(csCallee);
+            Context callerContext = csCallSite.getContext();
+            Context calleeContext = csCallee.getContext();
+            JMethod callee = csCallee.getMethod();
+            List<Var> args = callSite.getInvokeExp().getArgs();
+            List<Var> params = callee.getIR().getParams();
+            for (int i = 0; i < args.size(); ++i) {
+                addPFGEdge(csManager.getCSVar(callerContext, args.get(i)),
+                        csManager.getCSVar(calleeContext, params.get(i)));
+            }
+            Var lhs = callSite.getLValue();
+            if (lhs != null) {
+                CSVar csLHS = csManager.getCSVar(callerContext, lhs);
+                for (Var ret : callee.getIR().getReturnVars()) {
+                    addPFGEdge(csManager.getCSVar(calleeContext, ret), csLHS);
+                }
+            }
+        }
     }
 
     /**
@@ -178,9 +504,18 @@ class Solver {
         return CallGraphs.resolveCallee(type, callSite);
     }
 
+    /**
+     * @return the number of worker threads used in parallel mode.
+     */
+    private int getThreads() {
+        Object threads = options.get("threads");
+        return threads instanceof Integer n && n > 0 ?
+                n : Runtime.getRuntime().availableProcessors();
+    }
+
     PointerAnalysisResult getResult() {
         if (result == null) {
-            result = new PointerAnalysisResultImpl(csManager, callGraph);
+            result = new ProjectingPointerAnalysisResult(csManager, callGraph);
         }
         return result;
     }
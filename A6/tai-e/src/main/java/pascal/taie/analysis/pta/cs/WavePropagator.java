@@ -0,0 +1,193 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.graph.Graph;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+import pascal.taie.util.graph.SimpleGraph;
+import pascal.taie.util.graph.TopoSorter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Propagates points-to sets over the pointer flow graph in parallel waves.
+ * <p>
+ * Each wave only considers the part of the PFG reachable from the pending
+ * pointers, collapses its strongly connected components,
+ * sorts the condensed graph topologically, and then propagates deltas
+ * level by level. Nodes at the same level have no edges between them,
+ * thus they are processed concurrently, and the deltas flowing into
+ * a node are merged into a concurrent points-to set.
+ */
+class WavePropagator {
+
+    private final PointerFlowGraph pointerFlowGraph;
+
+    private final ForkJoinPool pool;
+
+    WavePropagator(PointerFlowGraph pointerFlowGraph, int threads) {
+        this.pointerFlowGraph = pointerFlowGraph;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Propagates given points-to sets to the pointers and all their
+     * (transitive) successors in the PFG.
+     *
+     * @param pending map from pointers to the objects to be added to
+     *                their points-to sets.
+     * @return map from the changed pointers to the objects newly added
+     * to their points-to sets.
+     */
+    Map<Pointer, PointsToSet> propagate(Map<Pointer, PointsToSet> pending) {
+        ConcurrentMap<Pointer, PointsToSet> changes = Maps.newConcurrentMap();
+        // pointers which have no PFG edges are not covered by the waves
+        pending.forEach((pointer, pts) -> {
+            if (!pointerFlowGraph.hasNode(pointer)) {
+                addAll(pointer, pts, changes);
+            }
+        });
+        MergedSCCGraph<Pointer> sccGraph = new MergedSCCGraph<>(
+                collectReachable(pending.keySet()));
+        ConcurrentMap<MergedNode<Pointer>, PointsToSet> incoming = Maps.newConcurrentMap();
+        for (MergedNode<Pointer> node : sccGraph) {
+            for (Pointer pointer : node.getNodes()) {
+                PointsToSet pts = pending.get(pointer);
+                if (pts != null) {
+                    incoming.computeIfAbsent(node, n -> PointsToSetFactory.makeConcurrent())
+                            .addAll(pts);
+                }
+            }
+        }
+        for (List<MergedNode<Pointer>> wave : computeWaves(sccGraph)) {
+            pool.submit(() -> wave.parallelStream().forEach(node -> {
+                PointsToSet in = incoming.remove(node);
+                if (in == null) {
+                    return;
+                }
+                // all pointers in an SCC eventually point to the same objects,
+                // so the incoming objects are added to every pointer of the node
+                PointsToSet out = PointsToSetFactory.make();
+                for (Pointer pointer : node.getNodes()) {
+                    out.addAll(addAll(pointer, in, changes));
+                }
+                if (!out.isEmpty()) {
+                    sccGraph.getSuccsOf(node).forEach(succ ->
+                            incoming.computeIfAbsent(succ, n -> PointsToSetFactory.makeConcurrent())
+                                    .addAll(out));
+                }
+            })).join();
+        }
+        return changes;
+    }
+
+    /**
+     * Collects the sub-graph of the PFG which is reachable from given pointers.
+     * Any cycle through a reachable pointer is reachable as a whole, so the
+     * SCCs of the sub-graph are exactly the SCCs of the PFG it covers.
+     */
+    private Graph<Pointer> collectReachable(Iterable<Pointer> roots) {
+        SimpleGraph<Pointer> graph = new SimpleGraph<>();
+        Deque<Pointer> workList = new ArrayDeque<>();
+        for (Pointer root : roots) {
+            if (pointerFlowGraph.hasNode(root) && !graph.hasNode(root)) {
+                graph.addNode(root);
+                workList.add(root);
+            }
+        }
+        while (!workList.isEmpty()) {
+            Pointer pointer = workList.poll();
+            for (Pointer succ : pointerFlowGraph.getSuccsOf(pointer)) {
+                if (!graph.hasNode(succ)) {
+                    graph.addNode(succ);
+                    workList.add(succ);
+                }
+                graph.addEdge(pointer, succ);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Adds given objects to the points-to set of the pointer, and
+     * records the newly-added objects in {@code changes}.
+     *
+     * @return the newly-added objects.
+     */
+    private static PointsToSet addAll(Pointer pointer, PointsToSet pts,
+                                      Map<Pointer, PointsToSet> changes) {
+        PointsToSet delta = PointsToSetFactory.make();
+        PointsToSet target = pointer.getPointsToSet();
+        pts.forEach(obj -> {
+            if (target.addObject(obj)) {
+                delta.addObject(obj);
+            }
+        });
+        if (!delta.isEmpty()) {
+            changes.computeIfAbsent(pointer, p -> PointsToSetFactory.make())
+                    .addAll(delta);
+        }
+        return delta;
+    }
+
+    /**
+     * Groups the nodes of given acyclic graph into waves, where the i-th
+     * wave contains the nodes whose longest path from a root is i.
+     * Each wave only depends on the previous ones.
+     */
+    private static List<List<MergedNode<Pointer>>> computeWaves(
+            MergedSCCGraph<Pointer> sccGraph) {
+        Map<MergedNode<Pointer>, Integer> levels = Maps.newMap();
+        List<List<MergedNode<Pointer>>> waves = new ArrayList<>();
+        for (MergedNode<Pointer> node : new TopoSorter<>(sccGraph).get()) {
+            int level = 0;
+            for (MergedNode<Pointer> pred : sccGraph.getPredsOf(node)) {
+                level = Math.max(level, levels.get(pred) + 1);
+            }
+            levels.put(node, level);
+            if (level == waves.size()) {
+                waves.add(new ArrayList<>());
+            }
+            waves.get(level).add(node);
+        }
+        return waves;
+    }
+
+    /**
+     * Releases the worker threads of this propagator.
+     */
+    void shutdown() {
+        pool.shutdown();
+    }
+}
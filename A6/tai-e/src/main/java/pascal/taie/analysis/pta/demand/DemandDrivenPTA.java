@@ -0,0 +1,372 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.demand;
+
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Demand-driven, context-insensitive pointer analysis.
+ * <p>
+ * Instead of solving the whole program, this analysis answers points-to
+ * queries for single variables by traversing the IR backwards from the
+ * queried variable, in the spirit of CFL-reachability based formulations:
+ * <ul>
+ *     <li>assignments (Copy and Cast) are followed to their right-hand sides;</li>
+ *     <li>a load x = y.f is matched with stores p.f = z where y and p may be
+ *     aliases, which is decided by nested queries on y and p;</li>
+ *     <li>return values and parameters are matched along the edges of
+ *     a given call graph, and receiver objects are filtered by dispatch.</li>
+ * </ul>
+ * Each query is given a budget of traversal steps. When a query exceeds
+ * the budget, the analysis gives up and answers the query with the
+ * whole-program result, which is obtained from the given supplier and
+ * thus only computed when really needed.
+ */
+public class DemandDrivenPTA {
+
+    /**
+     * Key of the demand-driven analysis in the result of pointer analysis,
+     * under which it is stored if option "demand-budget" is given.
+     */
+    public static final String RESULT_KEY = "demand-pta";
+
+    /**
+     * Default number of traversal steps for a single query.
+     */
+    public static final int DEFAULT_BUDGET = 10_000;
+
+    private final CallGraph<Invoke, JMethod> callGraph;
+
+    private final HeapModel heapModel;
+
+    private final int budget;
+
+    private final Supplier<PointerAnalysisResult> fallback;
+
+    private PointerAnalysisResult wholeProgramResult;
+
+    /**
+     * Definition statements of variables, indexed per method on demand.
+     */
+    private final Map<Var, List<DefinitionStmt<?, ?>>> defs = Maps.newMap();
+
+    private final Set<JMethod> indexedMethods = Sets.newSet();
+
+    /**
+     * Field and array stores of the methods in the call graph,
+     * built at the first load encountered by the queries.
+     */
+    private MultiMap<JField, StoreField> fieldStores;
+
+    private List<StoreArray> arrayStores;
+
+    /**
+     * Points-to sets of completed queries.
+     */
+    private final Map<Var, Set<Obj>> cache = Maps.newMap();
+
+    /**
+     * Variables whose queries are in progress, used to cut cyclic
+     * dependencies among nested alias queries.
+     */
+    private final Set<Var> inProgress = Sets.newSet();
+
+    private int steps;
+
+    private int demandQueries = 0;
+
+    private int fallbackQueries = 0;
+
+    /**
+     * @param callGraph call graph used to match calls and returns,
+     *                  which can be any sound call graph of the program
+     * @param heapModel heap model that creates the abstract objects;
+     *                  to be comparable with the fallback result, it should
+     *                  be the same heap model used by the fallback analysis
+     * @param budget    maximum number of traversal steps for a query
+     * @param fallback  supplier of the whole-program result
+     */
+    public DemandDrivenPTA(CallGraph<Invoke, JMethod> callGraph,
+                           HeapModel heapModel, int budget,
+                           Supplier<PointerAnalysisResult> fallback) {
+        this.callGraph = callGraph;
+        this.heapModel = heapModel;
+        this.budget = budget;
+        this.fallback = fallback;
+    }
+
+    /**
+     * @return the objects that {@code var} may point to.
+     */
+    public Set<Obj> getPointsToSet(Var var) {
+        Set<Obj> result = cache.get(var);
+        if (result != null) {
+            return result;
+        }
+        steps = 0;
+        try {
+            result = pointsTo(var);
+            ++demandQueries;
+            return result;
+        } catch (BudgetExceededException e) {
+            inProgress.clear();
+            ++fallbackQueries;
+            if (wholeProgramResult == null) {
+                wholeProgramResult = fallback.get();
+            }
+            return wholeProgramResult.getPointsToSet(var);
+        }
+    }
+
+    /**
+     * @return true if {@code v1} and {@code v2} may point to the same object.
+     */
+    public boolean mayAlias(Var v1, Var v2) {
+        Set<Obj> pts1 = getPointsToSet(v1);
+        Set<Obj> pts2 = getPointsToSet(v2);
+        return intersects(pts1, pts2);
+    }
+
+    /**
+     * @return number of queries answered by the demand-driven analysis.
+     */
+    public int getDemandQueries() {
+        return demandQueries;
+    }
+
+    /**
+     * @return number of queries answered by the whole-program result.
+     */
+    public int getFallbackQueries() {
+        return fallbackQueries;
+    }
+
+    /**
+     * Computes points-to set of given variable by backward traversal.
+     *
+     * @return the points-to set, or null if the query of {@code var}
+     * is already in progress.
+     */
+    private Set<Obj> pointsTo(Var var) {
+        Set<Obj> result = cache.get(var);
+        if (result != null) {
+            return result;
+        }
+        if (!inProgress.add(var)) {
+            return null;
+        }
+        result = Sets.newHybridSet();
+        Set<Var> visited = Sets.newSet();
+        Deque<Var> workList = new ArrayDeque<>();
+        reach(var, visited, workList);
+        while (!workList.isEmpty()) {
+            Var x = workList.poll();
+            charge();
+            for (DefinitionStmt<?, ?> def : getDefs(x)) {
+                if (def instanceof New) {
+                    result.add(heapModel.getObj((New) def));
+                } else if (def instanceof Copy) {
+                    reach(((Copy) def).getRValue(), visited, workList);
+                } else if (def instanceof Cast) {
+                    reach(((Cast) def).getRValue().getValue(), visited, workList);
+                } else if (def instanceof LoadField load) {
+                    JField field = load.getFieldRef().resolve();
+                    Var base = load.isStatic() ? null :
+                            ((InstanceFieldAccess) load.getFieldAccess()).getBase();
+                    for (StoreField store : getFieldStores().get(field)) {
+                        if (base == null || mayAliasInQuery(base,
+                                ((InstanceFieldAccess) store.getFieldAccess()).getBase())) {
+                            reach(store.getRValue(), visited, workList);
+                        }
+                    }
+                } else if (def instanceof LoadArray load) {
+                    Var base = load.getArrayAccess().getBase();
+                    for (StoreArray store : getArrayStores()) {
+                        if (mayAliasInQuery(base, store.getArrayAccess().getBase())) {
+                            reach(store.getRValue(), visited, workList);
+                        }
+                    }
+                } else if (def instanceof Invoke invoke) {
+                    for (JMethod callee : callGraph.getCalleesOf(invoke)) {
+                        callee.getIR().getReturnVars().forEach(ret ->
+                                reach(ret, visited, workList));
+                    }
+                }
+            }
+            // match parameters with arguments of the callers
+            JMethod method = x.getMethod();
+            IR ir = method.getIR();
+            if (x.equals(ir.getThis())) {
+                for (Invoke callSite : callGraph.getCallersOf(method)) {
+                    Var base = ((InvokeInstanceExp) callSite.getInvokeExp()).getBase();
+                    Set<Obj> recvObjs = pointsTo(base);
+                    if (recvObjs == null) {
+                        reach(base, visited, workList);
+                    } else {
+                        recvObjs.stream()
+                                .filter(recv -> method.equals(CallGraphs
+                                        .resolveCallee(recv.getType(), callSite)))
+                                .forEach(result::add);
+                    }
+                }
+            } else {
+                int i = ir.getParams().indexOf(x);
+                if (i >= 0) {
+                    for (Invoke callSite : callGraph.getCallersOf(method)) {
+                        reach(callSite.getInvokeExp().getArg(i), visited, workList);
+                    }
+                }
+            }
+        }
+        inProgress.remove(var);
+        cache.put(var, result);
+        return result;
+    }
+
+    private static void reach(Var var, Set<Var> visited, Deque<Var> workList) {
+        if (visited.add(var)) {
+            workList.add(var);
+        }
+    }
+
+    /**
+     * Alias check used inside a query. If either of the variables
+     * is being queried, the check conservatively reports may-alias.
+     */
+    private boolean mayAliasInQuery(Var v1, Var v2) {
+        charge();
+        Set<Obj> pts1 = pointsTo(v1);
+        if (pts1 == null) {
+            return true;
+        }
+        Set<Obj> pts2 = pointsTo(v2);
+        return pts2 == null || intersects(pts1, pts2);
+    }
+
+    private static boolean intersects(Set<Obj> s1, Set<Obj> s2) {
+        if (s1.size() > s2.size()) {
+            Set<Obj> tmp = s1;
+            s1 = s2;
+            s2 = tmp;
+        }
+        for (Obj obj : s1) {
+            if (s2.contains(obj)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void charge() {
+        if (++steps > budget) {
+            throw BudgetExceededException.INSTANCE;
+        }
+    }
+
+    private List<DefinitionStmt<?, ?>> getDefs(Var var) {
+        JMethod method = var.getMethod();
+        if (indexedMethods.add(method)) {
+            for (Stmt stmt : method.getIR()) {
+                if (stmt instanceof DefinitionStmt<?, ?> def
+                        && def.getLValue() instanceof Var lhs) {
+                    defs.computeIfAbsent(lhs, v -> new ArrayList<>()).add(def);
+                }
+            }
+        }
+        return defs.getOrDefault(var, List.of());
+    }
+
+    private MultiMap<JField, StoreField> getFieldStores() {
+        if (fieldStores == null) {
+            buildStoreIndex();
+        }
+        return fieldStores;
+    }
+
+    private List<StoreArray> getArrayStores() {
+        if (arrayStores == null) {
+            buildStoreIndex();
+        }
+        return arrayStores;
+    }
+
+    private void buildStoreIndex() {
+        fieldStores = Maps.newMultiMap();
+        arrayStores = new ArrayList<>();
+        callGraph.reachableMethods().forEach(method -> {
+            for (Stmt stmt : method.getIR()) {
+                if (stmt instanceof StoreField store) {
+                    fieldStores.put(store.getFieldRef().resolve(), store);
+                } else if (stmt instanceof StoreArray store) {
+                    arrayStores.add(store);
+                }
+            }
+        });
+    }
+
+    /**
+     * Signals that a query runs out of its budget.
+     */
+    private static class BudgetExceededException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final BudgetExceededException INSTANCE =
+                new BudgetExceededException();
+
+        private BudgetExceededException() {
+            super(null, null, false, false);
+        }
+    }
+}
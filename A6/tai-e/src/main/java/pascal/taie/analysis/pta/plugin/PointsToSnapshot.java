@@ -0,0 +1,355 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot of (context-insensitive) pointer analysis results,
+ * which can be written after solving and re-opened by later analyses
+ * without re-running pointer analysis.
+ * <p>
+ * A snapshot is read via memory-mapped I/O, and supports random-access
+ * queries of the points-to set of a variable and the callees of a call site.
+ * As snapshots may be opened in a different run, variables, objects and
+ * methods are identified by their string representations.
+ * <p>
+ * Layout of the file (all integers are 4-byte big-endian):
+ * <pre>
+ * header:      MAGIC, VERSION, #strings, #pointers, #objects,
+ *              #points-to entries, #call edges
+ * strings:     offsets[#strings + 1] (relative to string data)
+ * pointers:    name ids[#pointers], sorted by name
+ * points-to:   CSR row offsets[#pointers + 1], object ids[#points-to entries]
+ * objects:     name ids[#objects]
+ * call graph:  (call site id, callee id)[#call edges], sorted by call site
+ * string data: UTF-8 bytes
+ * </pre>
+ */
+public class PointsToSnapshot {
+
+    private static final Logger logger = LogManager.getLogger(PointsToSnapshot.class);
+
+    private static final int MAGIC = 0x54505453; // "TPTS"
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_INTS = 7;
+
+    private final ByteBuffer buffer;
+
+    private final int numStrings;
+
+    private final int numPointers;
+
+    private final int numObjects;
+
+    private final int numCallEdges;
+
+    private final int stringOffsetsStart;
+
+    private final int pointersStart;
+
+    private final int ptsOffsetsStart;
+
+    private final int ptsEntriesStart;
+
+    private final int objectsStart;
+
+    private final int callEdgesStart;
+
+    private final int stringDataStart;
+
+    private PointsToSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new AnalysisException("Invalid points-to snapshot");
+        }
+        numStrings = buffer.getInt(8);
+        numPointers = buffer.getInt(12);
+        numObjects = buffer.getInt(16);
+        int numPtsEntries = buffer.getInt(20);
+        numCallEdges = buffer.getInt(24);
+        stringOffsetsStart = HEADER_INTS * 4;
+        pointersStart = stringOffsetsStart + (numStrings + 1) * 4;
+        ptsOffsetsStart = pointersStart + numPointers * 4;
+        ptsEntriesStart = ptsOffsetsStart + (numPointers + 1) * 4;
+        objectsStart = ptsEntriesStart + numPtsEntries * 4;
+        callEdgesStart = objectsStart + numObjects * 4;
+        stringDataStart = callEdgesStart + numCallEdges * 8;
+    }
+
+    /**
+     * Opens the snapshot stored in given file.
+     */
+    public static PointsToSnapshot open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new PointsToSnapshot(buffer);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to open points-to snapshot " + path, e);
+        }
+    }
+
+    /**
+     * @return the number of variables in this snapshot.
+     */
+    public int getNumberOfPointers() {
+        return numPointers;
+    }
+
+    /**
+     * @return the number of objects in this snapshot.
+     */
+    public int getNumberOfObjects() {
+        return numObjects;
+    }
+
+    /**
+     * @return the number of call graph edges in this snapshot.
+     */
+    public int getNumberOfCallEdges() {
+        return numCallEdges;
+    }
+
+    /**
+     * @return the objects pointed to by given variable.
+     */
+    public List<String> getPointsToSet(Var var) {
+        return getPointsToSet(toString(var));
+    }
+
+    /**
+     * @param pointer string representation of a variable,
+     *                i.e., "method-signature/var-name".
+     * @return the objects pointed to by given variable.
+     */
+    public List<String> getPointsToSet(String pointer) {
+        int i = binarySearch(pointersStart, 4, numPointers, pointer);
+        if (i < 0) {
+            return List.of();
+        }
+        int from = getInt(ptsOffsetsStart, i);
+        int to = getInt(ptsOffsetsStart, i + 1);
+        List<String> objs = new ArrayList<>(to - from);
+        for (int j = from; j < to; ++j) {
+            objs.add(getString(getInt(objectsStart, getInt(ptsEntriesStart, j))));
+        }
+        return objs;
+    }
+
+    /**
+     * @return the signatures of the callees of given call site.
+     */
+    public List<String> getCalleesOf(Invoke callSite) {
+        String key = CallGraphs.toString(callSite);
+        int i = binarySearch(callEdgesStart, 8, numCallEdges, key);
+        if (i < 0) {
+            return List.of();
+        }
+        // move to the first edge of the call site
+        while (i > 0 && getString(getInt(callEdgesStart, (i - 1) * 2)).equals(key)) {
+            --i;
+        }
+        List<String> callees = new ArrayList<>();
+        for (; i < numCallEdges && getString(getInt(callEdgesStart, i * 2)).equals(key); ++i) {
+            callees.add(getString(getInt(callEdgesStart, i * 2 + 1)));
+        }
+        return callees;
+    }
+
+    /**
+     * Binary searches the table of string ids which is sorted by strings.
+     *
+     * @return index of the entry whose string equals to the key,
+     * or -1 if no such entry.
+     */
+    private int binarySearch(int tableStart, int entrySize, int size, String key) {
+        int low = 0, high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = getString(buffer.getInt(tableStart + mid * entrySize))
+                    .compareTo(key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int getInt(int tableStart, int i) {
+        return buffer.getInt(tableStart + i * 4);
+    }
+
+    private String getString(int id) {
+        int from = getInt(stringOffsetsStart, id);
+        int to = getInt(stringOffsetsStart, id + 1);
+        byte[] bytes = new byte[to - from];
+        buffer.get(stringDataStart + from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the context-insensitive projection of given result,
+     * i.e., points-to sets of variables and call graph, to given file.
+     *
+     * @throws AnalysisException if the result is too large to be addressed
+     *                           by the 4-byte offsets of the snapshot format.
+     */
+    public static void write(PointerAnalysisResult result, Path path) {
+        logger.info("Writing points-to snapshot to {} ...", path);
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        List<Var> vars = result.getVars()
+                .stream()
+                .sorted(Comparator.comparing(PointsToSnapshot::toString))
+                .toList();
+        int[] varNames = new int[vars.size()];
+        int[] ptsOffsets = new int[vars.size() + 1];
+        long numPtsEntries = 0;
+        for (int i = 0; i < vars.size(); ++i) {
+            Var var = vars.get(i);
+            varNames[i] = getStringId(strings, toString(var));
+            numPtsEntries += result.getPointsToSet(var).size();
+            ptsOffsets[i + 1] = checkSize(numPtsEntries);
+        }
+        Map<Obj, Integer> objIds = new LinkedHashMap<>();
+        int[] ptsEntries = new int[ptsOffsets[vars.size()]];
+        for (int i = 0; i < vars.size(); ++i) {
+            int j = ptsOffsets[i];
+            for (Obj obj : result.getPointsToSet(vars.get(i))) {
+                ptsEntries[j++] = objIds.computeIfAbsent(obj, o -> objIds.size());
+            }
+            Arrays.sort(ptsEntries, ptsOffsets[i], j);
+        }
+        int[] objNames = objIds.keySet()
+                .stream()
+                .mapToInt(obj -> getStringId(strings, obj.toString()))
+                .toArray();
+        CallGraph<Invoke, JMethod> callGraph = result.getCallGraph();
+        List<Edge<Invoke, JMethod>> edges = callGraph.edges()
+                .sorted(Comparator.comparing(e -> CallGraphs.toString(e.getCallSite())))
+                .toList();
+        int[] callEdges = new int[edges.size() * 2];
+        for (int i = 0; i < edges.size(); ++i) {
+            Edge<Invoke, JMethod> edge = edges.get(i);
+            callEdges[i * 2] = getStringId(strings,
+                    CallGraphs.toString(edge.getCallSite()));
+            callEdges[i * 2 + 1] = getStringId(strings,
+                    edge.getCallee().getSignature());
+        }
+        List<byte[]> data = strings.keySet()
+                .stream()
+                .map(str -> str.getBytes(StandardCharsets.UTF_8))
+                .toList();
+        int[] stringOffsets = new int[data.size() + 1];
+        long stringDataSize = 0;
+        for (int i = 0; i < data.size(); ++i) {
+            stringDataSize += data.get(i).length;
+            stringOffsets[i + 1] = checkSize(stringDataSize);
+        }
+        // all positions in the file are 4-byte integers
+        checkSize(4L * (HEADER_INTS + stringOffsets.length + varNames.length
+                + ptsOffsets.length + ptsEntries.length + objNames.length
+                + callEdges.length) + stringDataSize);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(data.size());
+            out.writeInt(varNames.length);
+            out.writeInt(objNames.length);
+            out.writeInt(ptsEntries.length);
+            out.writeInt(edges.size());
+            writeInts(out, stringOffsets);
+            writeInts(out, varNames);
+            writeInts(out, ptsOffsets);
+            writeInts(out, ptsEntries);
+            writeInts(out, objNames);
+            writeInts(out, callEdges);
+            for (byte[] bytes : data) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write points-to snapshot " + path, e);
+        }
+    }
+
+    /**
+     * @return {@code size} if it can be stored in the snapshot.
+     * @throws AnalysisException if {@code size} exceeds the limit.
+     */
+    private static int checkSize(long size) {
+        if (size > Integer.MAX_VALUE) {
+            throw new AnalysisException("Points-to snapshot is too large: " +
+                    size + " exceeds the limit " + Integer.MAX_VALUE);
+        }
+        return (int) size;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] ints)
+            throws IOException {
+        for (int i : ints) {
+            out.writeInt(i);
+        }
+    }
+
+    private static int getStringId(Map<String, Integer> strings, String s) {
+        return strings.computeIfAbsent(s, k -> strings.size());
+    }
+
+    private static String toString(Var var) {
+        return var.getMethod().getSignature() + "/" + var.getName();
+    }
+}
@@ -72,6 +72,10 @@ public class ResultProcessor {
     public static void process(AnalysisOptions options,
                                PointerAnalysisResult result) {
         printStatistics(result);
+        String snapshot = options.getString("snapshot");
+        if (snapshot != null) {
+            PointsToSnapshot.write(result, Path.of(snapshot));
+        }
         String action = options.getString("action");
         if (action == null) {
             return;
@@ -94,8 +98,8 @@ public class ResultProcessor {
         int aptSizeSens = sum(result.getArrayIndexes(), getSize);
         int reachableInsens = result.getCallGraph().getNumberOfMethods();
         int reachableSens = result.getCSCallGraph().getNumberOfMethods();
-        int callEdgeInsens = (int) result.getCallGraph().edges().count();
-        int callEdgeSens = (int) result.getCSCallGraph().edges().count();
+        int callEdgeInsens = result.getCallGraph().getNumberOfEdges();
+        int callEdgeSens = result.getCSCallGraph().getNumberOfEdges();
         System.out.println("-------------- Pointer analysis statistics: --------------");
         System.out.printf("%-30s%s (insens) / %s (sens)%n", "#var pointers:",
                 format(varInsens), format(varSens));
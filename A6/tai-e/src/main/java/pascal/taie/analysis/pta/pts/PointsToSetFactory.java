@@ -39,6 +39,13 @@ public class PointsToSetFactory {
         return new DelegatePointsToSet(setFactory.get());
     }
 
+    /**
+     * @return a points-to set which supports concurrent modifications.
+     */
+    public static PointsToSet makeConcurrent() {
+        return new DelegatePointsToSet(Sets.newConcurrentSet());
+    }
+
     /**
      * Convenient method for making one-element points-to set.
      */
@@ -0,0 +1,251 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.toolkit.zipper;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultEx;
+import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultExImpl;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Sets;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Selects precision-critical methods based on the result of
+ * a context-insensitive pre-analysis, following the idea of Zipper.
+ * <p>
+ * The values that flow between variables and object fields are modeled
+ * by an object flow graph (OFG). For each type T, the IN nodes are the
+ * parameters of the methods invoked on objects of T, and the OUT nodes
+ * are the return variables of these methods. Values that flow from
+ * IN nodes to OUT nodes, either directly, through fields of objects
+ * (unwrapped flows), or wrapped in the base objects of field stores
+ * (wrapped flows), may be merged by context-insensitive analysis.
+ * The methods that contain such flows are considered precision-critical,
+ * and should be analyzed context-sensitively.
+ * <p>
+ * Instead of traversing the OFG once for each type, the flows of all
+ * types are computed by one forward and one backward traversal, where
+ * each node carries the set of types that reach it.
+ */
+public class Zipper {
+
+    private static final Logger logger = LogManager.getLogger(Zipper.class);
+
+    private final PointerAnalysisResult pta;
+
+    private final PointerAnalysisResultEx ptaEx;
+
+    /**
+     * Successors in the OFG. The nodes are variables, pairs of
+     * (object, field) for instance fields, and objects for array elements.
+     */
+    private final MultiMap<Object, Object> succs = Maps.newMultiMap();
+
+    private final MultiMap<Object, Object> preds = Maps.newMultiMap();
+
+    public Zipper(PointerAnalysisResult pta) {
+        this.pta = pta;
+        this.ptaEx = new PointerAnalysisResultExImpl(pta);
+        buildObjectFlowGraph();
+    }
+
+    /**
+     * @return the methods which are precision-critical.
+     */
+    public Set<JMethod> selectPrecisionCriticalMethods() {
+        MultiMap<Type, Obj> objsByType = Maps.newMultiMap();
+        pta.getObjects().forEach(obj -> objsByType.put(obj.getType(), obj));
+        // the IN/OUT nodes of each type are marked by the bit of the type
+        Map<Object, BitSet> inTypes = Maps.newMap();
+        Map<Object, BitSet> outTypes = Maps.newMap();
+        int[] typeId = {0};
+        objsByType.forEachSet((type, objs) -> {
+            int id = typeId[0]++;
+            Set<JMethod> methods = Sets.newSet();
+            objs.forEach(obj -> methods.addAll(ptaEx.getMethodsInvokedOn(obj)));
+            for (JMethod method : methods) {
+                IR ir = method.getIR();
+                ir.getParams().forEach(param -> markType(inTypes, param, id));
+                ir.getReturnVars().forEach(ret -> markType(outTypes, ret, id));
+            }
+        });
+        // OUT nodes are sinks of forward traversal, so that flows do not
+        // leave the methods of the type through their callers. Backward
+        // traversal does not stop at IN nodes, as a flow may pass through
+        // several IN nodes, e.g., a parameter passed to another method
+        // of the type; flows into callers are removed by intersection
+        Map<Object, BitSet> forward = propagate(inTypes, succs, outTypes);
+        Map<Object, BitSet> backward = propagate(outTypes, preds, Map.of());
+        Set<JMethod> pcms = Sets.newSet();
+        forward.forEach((node, types) -> {
+            // the node is on a flow from IN nodes to OUT nodes of a type
+            if (node instanceof Var var && backward.containsKey(var)
+                    && types.intersects(backward.get(var))) {
+                pcms.add(var.getMethod());
+            }
+        });
+        logger.info("{} precision-critical methods are selected out of {}" +
+                " reachable methods", pcms.size(),
+                pta.getCallGraph().getNumberOfMethods());
+        return pcms;
+    }
+
+    private static void markType(Map<Object, BitSet> nodeTypes, Object node, int id) {
+        nodeTypes.computeIfAbsent(node, __ -> new BitSet()).set(id);
+    }
+
+    /**
+     * Traverses the OFG from the source nodes of all types at once.
+     * Each type is propagated from its source nodes along given edges,
+     * and stops at its stop nodes that are not its source nodes.
+     * Only the newly reached types of each node are propagated,
+     * thus each type is propagated along each edge at most once.
+     *
+     * @return map from each reached node to the types that reach it.
+     */
+    private static Map<Object, BitSet> propagate(Map<Object, BitSet> sources,
+                                                 MultiMap<Object, Object> edges,
+                                                 Map<Object, BitSet> stops) {
+        Map<Object, BitSet> reached = Maps.newMap();
+        Map<Object, BitSet> deltas = Maps.newMap();
+        SetQueue<Object> workList = new SetQueue<>();
+        sources.forEach((node, types) -> {
+            reached.put(node, (BitSet) types.clone());
+            deltas.put(node, (BitSet) types.clone());
+            workList.add(node);
+        });
+        while (!workList.isEmpty()) {
+            Object node = workList.poll();
+            BitSet delta = deltas.remove(node);
+            BitSet stopTypes = stops.get(node);
+            if (stopTypes != null) {
+                BitSet stopped = (BitSet) stopTypes.clone();
+                BitSet sourceTypes = sources.get(node);
+                if (sourceTypes != null) {
+                    stopped.andNot(sourceTypes);
+                }
+                delta.andNot(stopped);
+            }
+            if (delta.isEmpty()) {
+                continue;
+            }
+            for (Object next : edges.get(node)) {
+                BitSet nextTypes = reached.computeIfAbsent(next, __ -> new BitSet());
+                BitSet diff = (BitSet) delta.clone();
+                diff.andNot(nextTypes);
+                if (!diff.isEmpty()) {
+                    nextTypes.or(diff);
+                    deltas.computeIfAbsent(next, __ -> new BitSet()).or(diff);
+                    workList.add(next);
+                }
+            }
+        }
+        return reached;
+    }
+
+    private void buildObjectFlowGraph() {
+        CallGraph<Invoke, JMethod> callGraph = pta.getCallGraph();
+        callGraph.reachableMethods().forEach(method ->
+                method.getIR().forEach(stmt -> {
+                    if (stmt instanceof Copy copy) {
+                        addEdge(copy.getRValue(), copy.getLValue());
+                    } else if (stmt instanceof Cast cast) {
+                        addEdge(cast.getRValue().getValue(), cast.getLValue());
+                    } else if (stmt instanceof LoadField load && !load.isStatic()) {
+                        JField field = load.getFieldRef().resolve();
+                        Var base = ((InstanceFieldAccess) load.getFieldAccess()).getBase();
+                        fieldsOf(base, field).forEach(f ->
+                                addEdge(f, load.getLValue()));
+                    } else if (stmt instanceof StoreField store && !store.isStatic()) {
+                        JField field = store.getFieldRef().resolve();
+                        Var base = ((InstanceFieldAccess) store.getFieldAccess()).getBase();
+                        fieldsOf(base, field).forEach(f ->
+                                addEdge(store.getRValue(), f));
+                        // wrapped flow
+                        addEdge(store.getRValue(), base);
+                    } else if (stmt instanceof LoadArray load) {
+                        pta.getPointsToSet(load.getArrayAccess().getBase())
+                                .forEach(array -> addEdge(array, load.getLValue()));
+                    } else if (stmt instanceof StoreArray store) {
+                        Var base = store.getArrayAccess().getBase();
+                        pta.getPointsToSet(base)
+                                .forEach(array -> addEdge(store.getRValue(), array));
+                        addEdge(store.getRValue(), base);
+                    }
+                }));
+        callGraph.edges().forEach(edge -> {
+            Invoke callSite = edge.getCallSite();
+            IR calleeIR = edge.getCallee().getIR();
+            for (int i = 0; i < calleeIR.getParams().size() &&
+                    i < callSite.getInvokeExp().getArgCount(); ++i) {
+                addEdge(callSite.getInvokeExp().getArg(i), calleeIR.getParam(i));
+            }
+            if (callSite.getInvokeExp() instanceof InvokeInstanceExp invokeExp
+                    && calleeIR.getThis() != null) {
+                addEdge(invokeExp.getBase(), calleeIR.getThis());
+            }
+            Var lhs = callSite.getResult();
+            if (lhs != null) {
+                calleeIR.getReturnVars().forEach(ret -> addEdge(ret, lhs));
+            }
+        });
+    }
+
+    private Collection<Pair<Obj, JField>> fieldsOf(Var base, JField field) {
+        return pta.getPointsToSet(base)
+                .stream()
+                .map(obj -> new Pair<>(obj, field))
+                .toList();
+    }
+
+    private void addEdge(Object source, Object target) {
+        if (succs.put(source, target)) {
+            preds.put(target, source);
+        }
+    }
+}
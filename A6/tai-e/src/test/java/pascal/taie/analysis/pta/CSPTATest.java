@@ -23,7 +23,32 @@
 package pascal.taie.analysis.pta;
 
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.analysis.pta.demand.DemandDrivenPTA;
+import pascal.taie.analysis.pta.plugin.PointsToSnapshot;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class CSPTATest {
 
@@ -93,4 +118,192 @@ public class CSPTATest {
     public void testArray() {
         Tests.testCSPTA(DIR, "Array");
     }
+
+    @Test
+    public void testDeepCalls() {
+        Tests.testCSPTA(DIR, "DeepCalls", "cs:2-call");
+    }
+
+    @Test
+    public void testManyContexts() {
+        Tests.testCSPTA(DIR, "ManyContexts", "cs:1-obj");
+    }
+
+    @Test
+    public void testManyContextsInParallel() {
+        Tests.testCSPTA(DIR, "ManyContexts", "cs:1-obj", "parallel:true");
+    }
+
+    @Test
+    public void testTwoHybrid() {
+        Tests.testCSPTA(DIR, "Hybrid", "cs:2-hybrid");
+    }
+
+    @Test
+    public void testProfile() throws IOException {
+        Path path = Files.createTempFile("profile", ".json");
+        try {
+            Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj",
+                    "profile:" + path, "profile-top:3");
+            List<String> lines = Files.readAllLines(path);
+            assertEquals("{", lines.get(0));
+            assertEquals(3, lines.stream()
+                    .filter(line -> line.startsWith("    {\"method\": "))
+                    .count());
+            assertEquals(3, lines.stream()
+                    .filter(line -> line.startsWith("    {\"obj\": "))
+                    .count());
+            // the last sample is taken at the end of the analysis
+            String last = lines.stream()
+                    .filter(line -> line.startsWith("    {\"time\": "))
+                    .reduce((first, second) -> second)
+                    .orElseThrow();
+            PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+            long csVars = result.getCSVars()
+                    .stream()
+                    .filter(csVar -> !result.getPointsToSet(csVar).isEmpty())
+                    .count();
+            assertTrue(last.contains("\"csVars\": " + csVars + ","));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void testScope() {
+        Tests.testCSPTA(DIR, "Scope", "scope:Scope,Item");
+    }
+
+    @Test
+    public void testScaler() {
+        Tests.testCSPTA(DIR, "ScalerSelect", "cs:scaler");
+    }
+
+    @Test
+    public void testZipper() {
+        Tests.testCSPTA(DIR, "ZipperSelect", "cs:zipper");
+    }
+
+    @Test
+    public void testBudget() {
+        Tests.testCSPTA(DIR, "Budget", "cs:2-obj",
+                "pts-budget:10", "degrade-step:1");
+    }
+
+    @Test
+    public void testEmptyHeapContext() {
+        Tests.testCSPTA(DIR, "EmptyHeapContext", "cs:2-obj",
+                "empty-heap-context:Box,default");
+    }
+
+    @Test
+    public void testMergeTypes() {
+        Tests.testCSPTA(DIR, "MergeTypes", "merge-types:Item+,Oth*");
+    }
+
+    @Test
+    public void testDemandQueries() {
+        Tests.testCSPTA(DIR, "DemandQuery", "demand-budget:1000");
+        LazyPointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        DemandDrivenPTA demand = result.getResult(DemandDrivenPTA.RESULT_KEY);
+        List<Var> vars = List.of(getVar("DemandQuery", "x"),
+                getVar("DemandQuery", "y"));
+        List<Set<Obj>> demandPts = vars.stream()
+                .map(demand::getPointsToSet)
+                .toList();
+        assertEquals(2, demand.getDemandQueries());
+        assertEquals(0, demand.getFallbackQueries());
+        // queries within budget do not run the main analysis
+        assertFalse(result.isAnalyzed());
+        assertEquals(vars.stream().map(result::getPointsToSet).toList(), demandPts);
+        assertTrue(result.isAnalyzed());
+    }
+
+    @Test
+    public void testDemandQueriesFallback() {
+        Tests.testCSPTA(DIR, "DemandQuery", "demand-budget:1");
+        LazyPointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        DemandDrivenPTA demand = result.getResult(DemandDrivenPTA.RESULT_KEY);
+        Var x = getVar("DemandQuery", "x");
+        assertFalse(result.isAnalyzed());
+        Set<Obj> pts = demand.getPointsToSet(x);
+        assertTrue(result.isAnalyzed());
+        assertEquals(result.getPointsToSet(x), pts);
+        assertEquals(0, demand.getDemandQueries());
+        assertEquals(1, demand.getFallbackQueries());
+    }
+
+    private static Var getVar(String main, String name) {
+        return World.get().getClassHierarchy()
+                .getClass(main)
+                .getDeclaredMethod("m")
+                .getIR()
+                .getVars()
+                .stream()
+                .filter(v -> v.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    public void testSnapshot() throws IOException {
+        Path path = Files.createTempFile("pts", ".snapshot");
+        try {
+            Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj", "snapshot:" + path);
+            PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+            PointsToSnapshot snapshot = PointsToSnapshot.open(path);
+            assertEquals(result.getVars().size(), snapshot.getNumberOfPointers());
+            assertEquals(result.getObjects().size(), snapshot.getNumberOfObjects());
+            assertEquals(result.getCallGraph().getNumberOfEdges(),
+                    snapshot.getNumberOfCallEdges());
+            for (Var var : result.getVars()) {
+                assertEquals(toStrings(result.getPointsToSet(var), Obj::toString),
+                        Set.copyOf(snapshot.getPointsToSet(var)));
+            }
+            CallGraph<Invoke, JMethod> callGraph = result.getCallGraph();
+            callGraph.reachableMethods()
+                    .flatMap(method -> callGraph.getCallSitesIn(method).stream())
+                    .forEach(callSite -> assertEquals(
+                            toStrings(callGraph.getCalleesOf(callSite),
+                                    JMethod::getSignature),
+                            Set.copyOf(snapshot.getCalleesOf(callSite))));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static <T> Set<String> toStrings(Set<T> elems,
+                                             Function<T, String> toString) {
+        return elems.stream().map(toString).collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testProjection() {
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj");
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        Map<Set<Obj>, Set<Obj>> projected = new HashMap<>();
+        for (Var var : result.getVars()) {
+            // project from the context-sensitive results
+            Set<Obj> expected = result.getCSVars()
+                    .stream()
+                    .filter(csVar -> csVar.getVar() == var)
+                    .flatMap(csVar -> result.getPointsToSet(csVar).stream())
+                    .map(CSObj::getObject)
+                    .collect(Collectors.toSet());
+            Set<Obj> pts = result.getPointsToSet(var);
+            assertEquals(expected, pts);
+            // equal projections share a single set
+            assertSame(projected.computeIfAbsent(pts, Function.identity()), pts);
+        }
+    }
+
+    @Test
+    public void testStoreLoadInParallel() {
+        Tests.testCSPTA(DIR, "StoreLoad", "parallel:true");
+    }
+
+    @Test
+    public void testInstanceFieldInParallel() {
+        Tests.testCSPTA(DIR, "InstanceField", "parallel:true", "threads:4");
+    }
 }
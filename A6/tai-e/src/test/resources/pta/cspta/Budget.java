@@ -0,0 +1,40 @@
+class Budget {
+    public static void main(String[] args) {
+        m();
+    }
+
+    static void m() {
+        Holder h1 = new Holder();
+        Holder h2 = new Holder();
+        Holder h3 = new Holder();
+        h1.set(new Value());
+        h2.set(new Value());
+        h3.set(new Value());
+        Value v1 = h1.get(); // v1 -> ?
+        Value v2 = h2.get(); // v2 -> ?
+        Value v3 = h3.get(); // v3 -> ?
+        Holder c = h1.copy();
+        Value v4 = c.get(); // v4 -> ?
+    }
+}
+
+class Holder {
+    Value value;
+
+    void set(Value v) {
+        this.value = v;
+    }
+
+    Value get() {
+        return this.value;
+    }
+
+    Holder copy() {
+        Holder h = new Holder();
+        h.set(this.get());
+        return h;
+    }
+}
+
+class Value {
+}
@@ -0,0 +1,32 @@
+class DeepCalls {
+    public static void main(String[] args) {
+        m();
+    }
+
+    static void m() {
+        Item i1 = new Item();
+        Item i2 = new Item();
+        Item x = a(i1); // x -> ?
+        Item y = a(i2); // y -> ?
+        Item z = b(i1); // z -> ?
+    }
+
+    static Item a(Item i) {
+        return b(i);
+    }
+
+    static Item b(Item i) {
+        return c(i);
+    }
+
+    static Item c(Item i) {
+        return d(i);
+    }
+
+    static Item d(Item i) {
+        return i;
+    }
+}
+
+class Item {
+}
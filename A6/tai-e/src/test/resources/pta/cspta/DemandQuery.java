@@ -0,0 +1,22 @@
+class DemandQuery {
+    public static void main(String[] args) {
+        m();
+    }
+
+    static void m() {
+        Node n1 = new Node();
+        Node n2 = new Node();
+        n1.next = new Node();
+        n2.next = new Node();
+        Node x = n1.next; // x -> ?
+        Node y = n2.id(n1); // y -> ?
+    }
+}
+
+class Node {
+    Node next;
+
+    Node id(Node n) {
+        return n;
+    }
+}
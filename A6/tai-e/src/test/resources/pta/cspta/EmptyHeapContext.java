@@ -0,0 +1,57 @@
+class EmptyHeapContext {
+    public static void main(String[] args) {
+        m();
+    }
+
+    static void m() {
+        Factory f1 = new Factory();
+        Factory f2 = new Factory();
+        Box b1 = f1.make();
+        Box b2 = f2.make();
+        b1.set(new Item());
+        b2.set(new Item());
+        Item x = b1.get(); // x -> ?
+        Bag g1 = f1.makeBag();
+        Bag g2 = f2.makeBag();
+        g1.set(new Item());
+        g2.set(new Item());
+        Item y = g1.get(); // y -> ?
+    }
+}
+
+class Factory {
+    Box make() {
+        return new Box();
+    }
+
+    Bag makeBag() {
+        return new Bag();
+    }
+}
+
+class Box {
+    Item item;
+
+    void set(Item i) {
+        this.item = i;
+    }
+
+    Item get() {
+        return this.item;
+    }
+}
+
+class Bag {
+    Item item;
+
+    void set(Item i) {
+        this.item = i;
+    }
+
+    Item get() {
+        return this.item;
+    }
+}
+
+class Item {
+}
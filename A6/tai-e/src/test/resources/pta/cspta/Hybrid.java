@@ -0,0 +1,38 @@
+class Hybrid {
+    public static void main(String[] args) {
+        m();
+    }
+
+    static void m() {
+        Item i1 = new Item();
+        Item i2 = new Item();
+        Item x = Util.id(i1); // x -> ?
+        Item y = Util.id(i2); // y -> ?
+        Box b1 = new Box();
+        Box b2 = new Box();
+        b1.set(i1);
+        b2.set(i2);
+        Item z = b1.get(); // z -> ?
+    }
+}
+
+class Util {
+    static Item id(Item i) {
+        return i;
+    }
+}
+
+class Box {
+    Item item;
+
+    void set(Item i) {
+        this.item = Util.id(i);
+    }
+
+    Item get() {
+        return this.item;
+    }
+}
+
+class Item {
+}
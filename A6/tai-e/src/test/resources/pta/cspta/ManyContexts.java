@@ -0,0 +1,59 @@
+class ManyContexts {
+    public static void main(String[] args) {
+        m();
+    }
+
+    static void m() {
+        Box b1 = new Box();
+        Box b2 = new Box();
+        Box b3 = new Box();
+        Box b4 = new Box();
+        Box b5 = new Box();
+        Box b6 = new Box();
+        Box b7 = new Box();
+        Box b8 = new Box();
+        Box b9 = new Box();
+        Box b10 = new Box();
+        Box b11 = new Box();
+        Box b12 = new Box();
+        b1.set(new Item());
+        b2.set(new Item());
+        b3.set(new Item());
+        b4.set(new Item());
+        b5.set(new Item());
+        b6.set(new Item());
+        b7.set(new Item());
+        b8.set(new Item());
+        b9.set(new Item());
+        b10.set(new Item());
+        b11.set(new Item());
+        b12.set(new Item());
+        Item x1 = b1.get();
+        Item x2 = b2.get();
+        Item x3 = b3.get();
+        Item x4 = b4.get();
+        Item x5 = b5.get();
+        Item x6 = b6.get();
+        Item x7 = b7.get();
+        Item x8 = b8.get();
+        Item x9 = b9.get();
+        Item x10 = b10.get();
+        Item x11 = b11.get();
+        Item x12 = b12.get();
+    }
+}
+
+class Box {
+    Item item;
+
+    void set(Item i) {
+        this.item = i;
+    }
+
+    Item get() {
+        return this.item;
+    }
+}
+
+class Item {
+}
@@ -0,0 +1,28 @@
+class MergeTypes {
+    public static void main(String[] args) {
+        m();
+    }
+
+    static void m() {
+        Item i1 = new Item();
+        Item i2 = new SubItem();
+        Other o1 = new Other();
+        Other o2 = new Other();
+        Box b = new Box();
+        b.item = i1;
+        Item x = b.item; // x -> ?
+    }
+}
+
+class Box {
+    Item item;
+}
+
+class Item {
+}
+
+class SubItem extends Item {
+}
+
+class Other {
+}
@@ -0,0 +1,29 @@
+class Scope {
+    public static void main(String[] args) {
+        m();
+    }
+
+    static void m() {
+        Item a = Helper.make(); // a -> stub object of Helper.make()
+        Item b = new Item();
+        Item c = Helper.id(b); // c -> stub object of Helper.id(Item)
+        Item d = id(b); // d -> b
+    }
+
+    static Item id(Item i) {
+        return i;
+    }
+}
+
+class Helper {
+    static Item make() {
+        return new Item();
+    }
+
+    static Item id(Item i) {
+        return i;
+    }
+}
+
+class Item {
+}
@@ -0,0 +1,40 @@
+class ZipperSelect {
+    public static void main(String[] args) {
+        m();
+    }
+
+    static void m() {
+        Box b1 = new Box();
+        Box b2 = new Box();
+        b1.set(new Item());
+        b2.set(new Item());
+        Item x = b1.get(); // x -> ?
+        Item y = b2.get(); // y -> ?
+        Item z = Util.pick(x); // Util.pick is not precision-critical
+    }
+}
+
+class Box {
+    Item item;
+
+    void set(Item i) {
+        this.doSet(i);
+    }
+
+    void doSet(Item p) {
+        this.item = p;
+    }
+
+    Item get() {
+        return this.item;
+    }
+}
+
+class Item {
+}
+
+class Util {
+    static Item pick(Item i) {
+        return i;
+    }
+}
@@ -56,33 +56,55 @@ public class ConstantPropagation extends
 
     @Override
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
-        // TODO - finish me
-        return null;
+        CPFact fact = new CPFact();
+        for (Var param : cfg.getIR().getParams()) {
+            if (canHoldInt(param)) {
+                fact.update(param, Value.getNAC());
+            }
+        }
+        return fact;
     }
 
     @Override
     public CPFact newInitialFact() {
-        // TODO - finish me
-        return null;
+        return new CPFact();
     }
 
     @Override
     public void meetInto(CPFact fact, CPFact target) {
-        // TODO - finish me
+        fact.forEach((var, value) ->
+                target.update(var, meetValue(value, target.get(var))));
     }
 
     /**
      * Meets two Values.
      */
     public Value meetValue(Value v1, Value v2) {
-        // TODO - finish me
-        return null;
+        if (v1.isNAC() || v2.isNAC()) {
+            return Value.getNAC();
+        }
+        if (v1.isUndef()) {
+            return v2;
+        }
+        if (v2.isUndef()) {
+            return v1;
+        }
+        return v1.equals(v2) ? v1 : Value.getNAC();
     }
 
     @Override
     public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
-        // TODO - finish me
-        return false;
+        CPFact newOut = in.copy();
+        if (stmt instanceof DefinitionStmt<?, ?> def &&
+                def.getLValue() instanceof Var lhs && canHoldInt(lhs)) {
+            newOut.update(lhs, evaluate(def.getRValue(), in));
+        }
+        if (newOut.equals(out)) {
+            return false;
+        }
+        out.clear();
+        out.copyFrom(newOut);
+        return true;
     }
 
     /**
@@ -111,7 +133,71 @@ public class ConstantPropagation extends
      * @return the resulting {@link Value}
      */
     public static Value evaluate(Exp exp, CPFact in) {
-        // TODO - finish me
-        return null;
+        if (exp instanceof IntLiteral literal) {
+            return Value.makeConstant(literal.getValue());
+        }
+        if (exp instanceof Var var) {
+            return canHoldInt(var) ? in.get(var) : Value.getNAC();
+        }
+        if (exp instanceof BinaryExp binary) {
+            Value v1 = in.get(binary.getOperand1());
+            Value v2 = in.get(binary.getOperand2());
+            if (v2.isConstant() && v2.getConstant() == 0 &&
+                    binary instanceof ArithmeticExp arith &&
+                    (arith.getOperator() == ArithmeticExp.Op.DIV ||
+                            arith.getOperator() == ArithmeticExp.Op.REM)) {
+                // division by zero
+                return Value.getUndef();
+            }
+            if (v1.isConstant() && v2.isConstant()) {
+                return Value.makeConstant(
+                        compute(binary, v1.getConstant(), v2.getConstant()));
+            }
+            if (v1.isNAC() || v2.isNAC()) {
+                return Value.getNAC();
+            }
+            return Value.getUndef();
+        }
+        // other expressions are not handled
+        return Value.getNAC();
+    }
+
+    /**
+     * @return the result of applying the operator of given binary
+     * expression to constants i1 and i2.
+     */
+    private static int compute(BinaryExp exp, int i1, int i2) {
+        if (exp instanceof ArithmeticExp arith) {
+            return switch (arith.getOperator()) {
+                case ADD -> i1 + i2;
+                case SUB -> i1 - i2;
+                case MUL -> i1 * i2;
+                case DIV -> i1 / i2;
+                case REM -> i1 % i2;
+            };
+        } else if (exp instanceof BitwiseExp bitwise) {
+            return switch (bitwise.getOperator()) {
+                case OR -> i1 | i2;
+                case AND -> i1 & i2;
+                case XOR -> i1 ^ i2;
+            };
+        } else if (exp instanceof ShiftExp shift) {
+            return switch (shift.getOperator()) {
+                case SHL -> i1 << i2;
+                case SHR -> i1 >> i2;
+                case USHR -> i1 >>> i2;
+            };
+        } else if (exp instanceof ConditionExp condition) {
+            boolean result = switch (condition.getOperator()) {
+                case EQ -> i1 == i2;
+                case NE -> i1 != i2;
+                case LT -> i1 < i2;
+                case GT -> i1 > i2;
+                case LE -> i1 <= i2;
+                case GE -> i1 >= i2;
+            };
+            return result ? 1 : 0;
+        }
+        throw new AnalysisException("Unexpected binary expression: " + exp);
     }
 }
@@ -0,0 +1,125 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.FieldStmt;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Set;
+
+/**
+ * Index of the field and array accesses of int values, which records
+ * the heap locations that each store/load may access according to
+ * the pointer analysis result, and the loads of each heap location.
+ * The heap locations are instance fields of abstract objects, static
+ * fields, and abstract array objects (indexes of arrays are not
+ * distinguished by this index).
+ */
+class AliasIndex {
+
+    /**
+     * Map from each heap location to the loads that may read it.
+     */
+    private final MultiMap<Object, Stmt> locationLoads = Maps.newMultiMap();
+
+    /**
+     * Map from each store/load to the heap locations it may access.
+     */
+    private final MultiMap<Stmt, Object> stmtLocations = Maps.newMultiMap();
+
+    AliasIndex(Iterable<Stmt> stmts, PointerAnalysisResult pta) {
+        for (Stmt stmt : stmts) {
+            if (stmt instanceof StoreField store &&
+                    ConstantPropagation.canHoldInt(store.getRValue())) {
+                getLocations(store, pta).forEach(loc ->
+                        stmtLocations.put(store, loc));
+            } else if (stmt instanceof LoadField load &&
+                    ConstantPropagation.canHoldInt(load.getLValue())) {
+                getLocations(load, pta).forEach(loc -> {
+                    locationLoads.put(loc, load);
+                    stmtLocations.put(load, loc);
+                });
+            } else if (stmt instanceof StoreArray store &&
+                    ConstantPropagation.canHoldInt(store.getRValue())) {
+                Var base = store.getArrayAccess().getBase();
+                pta.getPointsToSet(base).forEach(array ->
+                        stmtLocations.put(store, array));
+            } else if (stmt instanceof LoadArray load &&
+                    ConstantPropagation.canHoldInt(load.getLValue())) {
+                Var base = load.getArrayAccess().getBase();
+                pta.getPointsToSet(base).forEach(array -> {
+                    locationLoads.put(array, load);
+                    stmtLocations.put(load, array);
+                });
+            }
+        }
+    }
+
+    /**
+     * @return the heap locations of the field accessed by given statement.
+     * A static field itself is its heap location, and the instance field
+     * of each object pointed to by the base variable is a heap location.
+     */
+    private static Set<Object> getLocations(
+            FieldStmt<?, ?> stmt, PointerAnalysisResult pta) {
+        JField field = stmt.getFieldRef().resolve();
+        if (stmt.isStatic()) {
+            return Set.of(field);
+        }
+        Set<Object> locations = Sets.newHybridSet();
+        Var base = ((InstanceFieldAccess) stmt.getFieldAccess()).getBase();
+        for (Obj obj : pta.getPointsToSet(base)) {
+            locations.add(new Pair<>(obj, field));
+        }
+        return locations;
+    }
+
+    /**
+     * @return the heap locations that may be accessed by given store/load.
+     */
+    Set<Object> getLocationsOf(Stmt stmt) {
+        return stmtLocations.get(stmt);
+    }
+
+    /**
+     * @return the loads that may read given heap location.
+     */
+    Set<Stmt> getLoadsOf(Object location) {
+        return locationLoads.get(location);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Map;
+
+/**
+ * Maintains the current value of each heap location in {@link AliasIndex},
+ * i.e., the meet of the values written by the stores to the location.
+ * The values are updated incrementally when the stores are transferred,
+ * so that the value read by a load is obtained by looking up the table
+ * instead of iterating over its aliased stores.
+ * <p>
+ * As the in facts of stores only descend in the lattice during solving,
+ * meeting the new value of a store into the current value of a location
+ * gives the same result as re-computing the meet over all its stores.
+ */
+class HeapValues {
+
+    private final ConstantPropagation cp;
+
+    /**
+     * Map from field locations (instance fields and static fields)
+     * to their values.
+     */
+    private final Map<Object, Value> fieldValues = Maps.newMap();
+
+    /**
+     * Map from array objects to the values of their elements.
+     */
+    private final Map<Object, ArrayValues> arrayValues = Maps.newMap();
+
+    HeapValues(ConstantPropagation cp) {
+        this.cp = cp;
+    }
+
+    /**
+     * Meets the value written by a field store into given location.
+     *
+     * @return true if the value of the location changed.
+     */
+    boolean storeField(Object location, Value value) {
+        Value oldValue = fieldValues.getOrDefault(location, Value.getUndef());
+        Value newValue = cp.meetValue(oldValue, value);
+        if (newValue.equals(oldValue)) {
+            return false;
+        }
+        fieldValues.put(location, newValue);
+        return true;
+    }
+
+    /**
+     * @return the value of given field location.
+     */
+    Value loadField(Object location) {
+        return fieldValues.getOrDefault(location, Value.getUndef());
+    }
+
+    /**
+     * Meets the value written by an array store with given index
+     * into the elements of given array.
+     *
+     * @return true if the values of the array elements changed.
+     */
+    boolean storeArray(Object array, Value index, Value value) {
+        if (index.isUndef() || value.isUndef()) {
+            // the store does not alias any load yet
+            return false;
+        }
+        return arrayValues.computeIfAbsent(array, __ -> new ArrayValues())
+                .store(index, value);
+    }
+
+    /**
+     * @return the value of the elements of given array that may be
+     * accessed by given index.
+     */
+    Value loadArray(Object array, Value index) {
+        ArrayValues values = arrayValues.get(array);
+        if (values == null || index.isUndef()) {
+            return Value.getUndef();
+        }
+        return values.load(index);
+    }
+
+    /**
+     * Values of the elements of an array object, indexed by
+     * the abstract values of the indexes.
+     */
+    private class ArrayValues {
+
+        /**
+         * Map from constant indexes to values stored with them.
+         */
+        private final Map<Integer, Value> constIndexValues = Maps.newMap();
+
+        /**
+         * Meet of the values stored with NAC indexes.
+         */
+        private Value nacIndexValue = Value.getUndef();
+
+        /**
+         * Meet of the values stored with any index.
+         */
+        private Value allValue = Value.getUndef();
+
+        private boolean store(Value index, Value value) {
+            boolean changed = false;
+            if (index.isConstant()) {
+                Value oldValue = constIndexValues.getOrDefault(
+                        index.getConstant(), Value.getUndef());
+                Value newValue = cp.meetValue(oldValue, value);
+                if (!newValue.equals(oldValue)) {
+                    constIndexValues.put(index.getConstant(), newValue);
+                    changed = true;
+                }
+            } else {
+                Value newValue = cp.meetValue(nacIndexValue, value);
+                if (!newValue.equals(nacIndexValue)) {
+                    nacIndexValue = newValue;
+                    changed = true;
+                }
+            }
+            allValue = cp.meetValue(allValue, value);
+            return changed;
+        }
+
+        private Value load(Value index) {
+            if (index.isConstant()) {
+                // an element with constant index may be written by
+                // the stores with the same index or with NAC indexes
+                return cp.meetValue(nacIndexValue, constIndexValues.getOrDefault(
+                        index.getConstant(), Value.getUndef()));
+            }
+            return allValue;
+        }
+    }
+}
@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.World;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
@@ -37,9 +38,15 @@ import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
 import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
 import pascal.taie.language.classes.JMethod;
 
+import java.util.List;
+
 /**
  * Implementation of interprocedural constant propagation for int values.
  */
@@ -50,6 +57,17 @@ public class InterConstantPropagation extends
 
     private final ConstantPropagation cp;
 
+    /**
+     * Index of aliased stores and loads, or null if this analysis
+     * is not alias-aware.
+     */
+    private AliasIndex aliasIndex;
+
+    /**
+     * Current values of the heap locations in {@link #aliasIndex}.
+     */
+    private HeapValues heapValues;
+
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
         cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
@@ -59,7 +77,10 @@ public class InterConstantPropagation extends
     protected void initialize() {
         String ptaId = getOptions().getString("pta");
         PointerAnalysisResult pta = World.get().getResult(ptaId);
-        // You can do initialization work here
+        if (getOptions().getBoolean("alias-aware")) {
+            aliasIndex = new AliasIndex(icfg, pta);
+            heapValues = new HeapValues(cp);
+        }
     }
 
     @Override
@@ -85,37 +106,123 @@ public class InterConstantPropagation extends
 
     @Override
     protected boolean transferCallNode(Stmt stmt, CPFact in, CPFact out) {
-        // TODO - finish me
-        return false;
+        return out.copyFrom(in);
     }
 
     @Override
     protected boolean transferNonCallNode(Stmt stmt, CPFact in, CPFact out) {
-        // TODO - finish me
-        return false;
+        if (aliasIndex == null) {
+            return cp.transferNode(stmt, in, out);
+        }
+        if (stmt instanceof LoadField load &&
+                ConstantPropagation.canHoldInt(load.getLValue())) {
+            return transferLoad(load.getLValue(), evaluateLoad(load), in, out);
+        }
+        if (stmt instanceof LoadArray load &&
+                ConstantPropagation.canHoldInt(load.getLValue())) {
+            return transferLoad(load.getLValue(), evaluateLoad(load, in), in, out);
+        }
+        boolean changed = cp.transferNode(stmt, in, out);
+        if (stmt instanceof StoreField store &&
+                ConstantPropagation.canHoldInt(store.getRValue())) {
+            onStore(store, null, in.get(store.getRValue()));
+        } else if (stmt instanceof StoreArray store &&
+                ConstantPropagation.canHoldInt(store.getRValue())) {
+            onStore(store, in.get(store.getArrayAccess().getIndex()),
+                    in.get(store.getRValue()));
+        }
+        return changed;
+    }
+
+    private static boolean transferLoad(Var lhs, Value value, CPFact in, CPFact out) {
+        CPFact newOut = in.copy();
+        newOut.update(lhs, value);
+        if (newOut.equals(out)) {
+            return false;
+        }
+        out.clear();
+        out.copyFrom(newOut);
+        return true;
+    }
+
+    /**
+     * @return the meet of the values of the heap locations read by given load.
+     */
+    private Value evaluateLoad(LoadField load) {
+        Value value = Value.getUndef();
+        for (Object loc : aliasIndex.getLocationsOf(load)) {
+            value = cp.meetValue(value, heapValues.loadField(loc));
+        }
+        return value;
+    }
+
+    private Value evaluateLoad(LoadArray load, CPFact in) {
+        Value index = in.get(load.getArrayAccess().getIndex());
+        Value value = Value.getUndef();
+        for (Object array : aliasIndex.getLocationsOf(load)) {
+            value = cp.meetValue(value, heapValues.loadArray(array, index));
+        }
+        return value;
+    }
+
+    /**
+     * Meets the value written by given store into the heap locations
+     * it may write, and re-enqueues the loads of the locations whose
+     * values change.
+     */
+    private void onStore(Stmt store, Value index, Value value) {
+        for (Object loc : aliasIndex.getLocationsOf(store)) {
+            boolean changed = index == null ?
+                    heapValues.storeField(loc, value) :
+                    heapValues.storeArray(loc, index, value);
+            if (changed) {
+                aliasIndex.getLoadsOf(loc).forEach(solver::addToWorkList);
+            }
+        }
     }
 
     @Override
     protected CPFact transferNormalEdge(NormalEdge<Stmt> edge, CPFact out) {
-        // TODO - finish me
-        return null;
+        return out;
     }
 
     @Override
     protected CPFact transferCallToReturnEdge(CallToReturnEdge<Stmt> edge, CPFact out) {
-        // TODO - finish me
-        return null;
+        CPFact fact = out.copy();
+        Var lhs = ((Invoke) edge.getSource()).getLValue();
+        if (lhs != null) {
+            // the value of lhs is passed along the return edges
+            fact.remove(lhs);
+        }
+        return fact;
     }
 
     @Override
     protected CPFact transferCallEdge(CallEdge<Stmt> edge, CPFact callSiteOut) {
-        // TODO - finish me
-        return null;
+        InvokeExp invokeExp = ((Invoke) edge.getSource()).getInvokeExp();
+        List<Var> params = edge.getCallee().getIR().getParams();
+        CPFact fact = newInitialFact();
+        for (int i = 0; i < params.size(); ++i) {
+            Var param = params.get(i);
+            if (ConstantPropagation.canHoldInt(param)) {
+                fact.update(param, callSiteOut.get(invokeExp.getArg(i)));
+            }
+        }
+        return fact;
     }
 
     @Override
     protected CPFact transferReturnEdge(ReturnEdge<Stmt> edge, CPFact returnOut) {
-        // TODO - finish me
-        return null;
+        CPFact fact = newInitialFact();
+        Var lhs = ((Invoke) edge.getCallSite()).getLValue();
+        if (lhs != null && ConstantPropagation.canHoldInt(lhs)) {
+            Value value = Value.getUndef();
+            for (Var ret : edge.getReturnVars()) {
+                value = cp.meetValue(value, returnOut.get(ret));
+            }
+            fact.update(lhs, value);
+        }
+        return fact;
     }
+
 }
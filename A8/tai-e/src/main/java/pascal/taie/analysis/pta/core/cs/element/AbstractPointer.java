@@ -23,11 +23,18 @@
 package pascal.taie.analysis.pta.core.cs.element;
 
 import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.util.Indexable;
 
-abstract class AbstractPointer implements Pointer {
+abstract class AbstractPointer implements Pointer, Indexable {
 
     private PointsToSet pointsToSet;
 
+    /**
+     * Index of this pointer, assigned by {@link ArrayBasedCSManager},
+     * or -1 if it is created by other managers.
+     */
+    private int index = -1;
+
     @Override
     public PointsToSet getPointsToSet() {
         return pointsToSet;
@@ -38,4 +45,12 @@ abstract class AbstractPointer implements Pointer {
         this.pointsToSet = pointsToSet;
     }
 
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
 }
@@ -26,6 +26,7 @@ import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.AbstractResultHolder;
+import pascal.taie.util.Indexable;
 import pascal.taie.util.ResultHolder;
 import pascal.taie.util.collection.Sets;
 
@@ -37,10 +38,16 @@ import java.util.function.Supplier;
 /**
  * Represents context-sensitive methods.
  */
-public class CSMethod extends AbstractCSElement {
+public class CSMethod extends AbstractCSElement implements Indexable {
 
     private final JMethod method;
 
+    /**
+     * Index of this method, assigned by {@link ArrayBasedCSManager},
+     * or -1 if it is created by other managers.
+     */
+    private int index = -1;
+
     /**
      * Call edges to this CS method.
      */
@@ -76,6 +83,15 @@ public class CSMethod extends AbstractCSElement {
         return Optional.ofNullable(resultHolder.getResult(id));
     }
 
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
     @Override
     public String toString() {
         return context + ":" + method;
@@ -43,19 +43,40 @@ public class _2CallSelector implements ContextSelector {
 
     @Override
     public Context selectContext(CSCallSite callSite, JMethod callee) {
-        // TODO - finish me
-        return null;
+        Invoke invoke = callSite.getCallSite();
+        return append(callSite.getContext(), invoke);
     }
 
     @Override
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
-        // TODO - finish me
-        return null;
+        Invoke invoke = callSite.getCallSite();
+        return append(callSite.getContext(), invoke);
     }
 
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
-        // TODO - finish me
-        return null;
+        return last(method.getContext());
+    }
+
+    /**
+     * @return a context that consists of the last element of
+     * given context (if any) and given element.
+     */
+    private static Context append(Context context, Object elem) {
+        int length = context.getLength();
+        return length > 0 ?
+                ListContext.make(context.getElementAt(length - 1), elem) :
+                ListContext.make(elem);
+    }
+
+    /**
+     * @return a context that consists of the last element of
+     * given context, or the empty context if given context is empty.
+     */
+    private Context last(Context context) {
+        int length = context.getLength();
+        return length > 0 ?
+                ListContext.make(context.getElementAt(length - 1)) :
+                getEmptyContext();
     }
 }
@@ -43,19 +43,39 @@ public class _2TypeSelector implements ContextSelector {
 
     @Override
     public Context selectContext(CSCallSite callSite, JMethod callee) {
-        // TODO - finish me
-        return null;
+        return callSite.getContext();
     }
 
     @Override
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
-        // TODO - finish me
-        return null;
+        Type type = recv.getObject().getContainerType();
+        return append(recv.getContext(), type);
     }
 
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
-        // TODO - finish me
-        return null;
+        return last(method.getContext());
+    }
+
+    /**
+     * @return a context that consists of the last element of
+     * given context (if any) and given element.
+     */
+    private static Context append(Context context, Object elem) {
+        int length = context.getLength();
+        return length > 0 ?
+                ListContext.make(context.getElementAt(length - 1), elem) :
+                ListContext.make(elem);
+    }
+
+    /**
+     * @return a context that consists of the last element of
+     * given context, or the empty context if given context is empty.
+     */
+    private Context last(Context context) {
+        int length = context.getLength();
+        return length > 0 ?
+                ListContext.make(context.getElementAt(length - 1)) :
+                getEmptyContext();
     }
 }
@@ -32,14 +32,13 @@ import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
 import pascal.taie.analysis.pta.core.cs.CSCallGraph;
 import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
-import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.cs.element.CSVar;
 import pascal.taie.analysis.pta.core.cs.element.InstanceField;
-import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.core.cs.element.StaticField;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
@@ -63,6 +62,9 @@ import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
 
+import java.util.List;
+import java.util.Set;
+
 public class Solver {
 
     private static final Logger logger = LogManager.getLogger(Solver.class);
@@ -73,7 +75,7 @@ public class Solver {
 
     private final ContextSelector contextSelector;
 
-    private CSManager csManager;
+    private ArrayBasedCSManager csManager;
 
     private CSCallGraph callGraph;
 
@@ -100,7 +102,7 @@ public class Solver {
         return contextSelector;
     }
 
-    public CSManager getCSManager() {
+    public ArrayBasedCSManager getCSManager() {
         return csManager;
     }
 
@@ -111,7 +113,7 @@ public class Solver {
     }
 
     private void initialize() {
-        csManager = new MapBasedCSManager();
+        csManager = new ArrayBasedCSManager();
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph();
         workList = new WorkList();
@@ -128,7 +130,10 @@ public class Solver {
      * Processes new reachable context-sensitive method.
      */
     private void addReachable(CSMethod csMethod) {
-        // TODO - finish me
+        if (callGraph.addReachableMethod(csMethod)) {
+            StmtProcessor stmtProcessor = new StmtProcessor(csMethod);
+            csMethod.getMethod().getIR().forEach(stmt -> stmt.accept(stmtProcessor));
+        }
     }
 
     /**
@@ -145,22 +150,132 @@ public class Solver {
             this.context = csMethod.getContext();
         }
 
-        // TODO - if you choose to implement addReachable()
-        //  via visitor pattern, then finish me
+        @Override
+        public Void visit(New stmt) {
+            Obj obj = heapModel.getObj(stmt);
+            Context heapContext = contextSelector.selectHeapContext(csMethod, obj);
+            CSObj csObj = csManager.getCSObj(heapContext, obj);
+            workList.addEntry(csManager.getCSVar(context, stmt.getLValue()),
+                    PointsToSetFactory.make(csObj));
+            return null;
+        }
+
+        @Override
+        public Void visit(Copy stmt) {
+            addPFGEdge(csManager.getCSVar(context, stmt.getRValue()),
+                    csManager.getCSVar(context, stmt.getLValue()));
+            return null;
+        }
+
+        @Override
+        public Void visit(LoadField stmt) {
+            if (stmt.isStatic()) {
+                JField field = stmt.getFieldRef().resolve();
+                addPFGEdge(csManager.getStaticField(field),
+                        csManager.getCSVar(context, stmt.getLValue()));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(StoreField stmt) {
+            if (stmt.isStatic()) {
+                JField field = stmt.getFieldRef().resolve();
+                addPFGEdge(csManager.getCSVar(context, stmt.getRValue()),
+                        csManager.getStaticField(field));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Invoke stmt) {
+            if (stmt.isStatic()) {
+                JMethod callee = resolveCallee(null, stmt);
+                CSCallSite csCallSite = csManager.getCSCallSite(context, stmt);
+                Context calleeContext = contextSelector.selectContext(csCallSite, callee);
+                CSMethod csCallee = csManager.getCSMethod(calleeContext, callee);
+                if (taintAnalysis.applySummaries(csCallSite, null, callee)) {
+                    processSummarizedCallEdge(csCallSite, csCallee);
+                } else {
+                    processCallEdge(csCallSite, csCallee);
+                }
+            }
+            return null;
+        }
     }
 
     /**
      * Adds an edge "source -> target" to the PFG.
      */
-    private void addPFGEdge(Pointer source, Pointer target) {
-        // TODO - finish me
+    public void addPFGEdge(Pointer source, Pointer target) {
+        if (pointerFlowGraph.addEdge(source, target)) {
+            PointsToSet pts = source.getPointsToSet();
+            if (!pts.isEmpty()) {
+                workList.addEntry(target, pts);
+            }
+        }
+    }
+
+    /**
+     * Adds objects in pointsToSet to the points-to set of given pointer.
+     * The objects are propagated when the work-list entry is processed.
+     */
+    public void addPointsTo(Pointer pointer, PointsToSet pointsToSet) {
+        workList.addEntry(pointer, pointsToSet);
+    }
+
+    /**
+     * @return successors of given pointer in the PFG.
+     */
+    public Set<Pointer> getPFGSuccsOf(Pointer pointer) {
+        return pointerFlowGraph.getSuccsOf(pointer);
     }
 
     /**
-     * Processes work-list entries until the work-list is empty.
+     * Processes work-list entries until the work-list is empty,
+     * or the taint analysis has found enough taint flows.
      */
     private void analyze() {
-        // TODO - finish me
+        while (!workList.isEmpty()) {
+            if (taintAnalysis.isFlowBudgetReached()) {
+                logger.info("Taint flow budget reached, stop pointer analysis");
+                break;
+            }
+            WorkList.Entry entry = workList.pollEntry();
+            PointsToSet delta = propagate(entry.pointer(), entry.pointsToSet());
+            if (!delta.isEmpty() && entry.pointer() instanceof CSVar csVar) {
+                processNewObjects(csVar, delta);
+                taintAnalysis.onNewPointsToSet(csVar, delta);
+            }
+        }
+    }
+
+    /**
+     * Processes the objects newly pointed to by given variable,
+     * i.e., field/array accesses and instance calls on the variable.
+     */
+    private void processNewObjects(CSVar csVar, PointsToSet delta) {
+        Var var = csVar.getVar();
+        Context context = csVar.getContext();
+        for (CSObj obj : delta) {
+            for (StoreField store : var.getStoreFields()) {
+                addPFGEdge(csManager.getCSVar(context, store.getRValue()),
+                        csManager.getInstanceField(obj, store.getFieldRef().resolve()));
+            }
+            for (LoadField load : var.getLoadFields()) {
+                addPFGEdge(csManager.getInstanceField(obj, load.getFieldRef().resolve()),
+                        csManager.getCSVar(context, load.getLValue()));
+            }
+            for (StoreArray store : var.getStoreArrays()) {
+                addPFGEdge(csManager.getCSVar(context, store.getRValue()),
+                        csManager.getArrayIndex(obj));
+            }
+            for (LoadArray load : var.getLoadArrays()) {
+                addPFGEdge(csManager.getArrayIndex(obj),
+                        csManager.getCSVar(context, load.getLValue()));
+            }
+            processCall(csVar, obj);
+        }
     }
 
     /**
@@ -168,8 +283,18 @@ public class Solver {
      * returns the difference set of pointsToSet and pt(pointer).
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
-        // TODO - finish me
-        return null;
+        PointsToSet delta = PointsToSetFactory.make();
+        PointsToSet pts = pointer.getPointsToSet();
+        pointsToSet.forEach(obj -> {
+            if (pts.addObject(obj)) {
+                delta.addObject(obj);
+            }
+        });
+        if (!delta.isEmpty()) {
+            pointerFlowGraph.getSuccsOf(pointer).forEach(succ ->
+                    workList.addEntry(succ, delta));
+        }
+        return delta;
     }
 
     /**
@@ -179,7 +304,69 @@ public class Solver {
      * @param recvObj set of new discovered objects pointed by the variable.
      */
     private void processCall(CSVar recv, CSObj recvObj) {
-        // TODO - finish me
+        for (Invoke callSite : recv.getVar().getInvokes()) {
+            JMethod callee = resolveCallee(recvObj, callSite);
+            if (callee == null) {
+                continue;
+            }
+            CSCallSite csCallSite = csManager.getCSCallSite(recv.getContext(), callSite);
+            Context calleeContext = contextSelector.selectContext(
+                    csCallSite, recvObj, callee);
+            CSMethod csCallee = csManager.getCSMethod(calleeContext, callee);
+            if (taintAnalysis.applySummaries(csCallSite, recvObj, callee)) {
+                processSummarizedCallEdge(csCallSite, csCallee);
+                continue;
+            }
+            workList.addEntry(csManager.getCSVar(calleeContext, callee.getIR().getThis()),
+                    PointsToSetFactory.make(recvObj));
+            processCallEdge(csCallSite, csCallee);
+        }
+    }
+
+    /**
+     * Adds call edge "csCallSite -> csCallee" to the call graph, and
+     * if the edge is new, connects arguments and return values, and
+     * lets the taint analysis handle sources, sinks and taint transfers
+     * of the callee.
+     */
+    private void processCallEdge(CSCallSite csCallSite, CSMethod csCallee) {
+        Invoke callSite = csCallSite.getCallSite();
+        CallKind kind = CallGraphs.getCallKind(callSite);
+        if (callGraph.addEdge(new Edge<>(kind, csCallSite, csCallee))) {
+            addReachable(csCallee);
+            Context callerContext = csCallSite.getContext();
+            Context calleeContext = csCallee.getContext();
+            JMethod callee = csCallee.getMethod();
+            List<Var> args = callSite.getInvokeExp().getArgs();
+            List<Var> params = callee.getIR().getParams();
+            for (int i = 0; i < args.size(); ++i) {
+                addPFGEdge(csManager.getCSVar(callerContext, args.get(i)),
+                        csManager.getCSVar(calleeContext, params.get(i)));
+            }
+            Var lhs = callSite.getLValue();
+            if (lhs != null) {
+                CSVar csLHS = csManager.getCSVar(callerContext, lhs);
+                for (Var ret : callee.getIR().getReturnVars()) {
+                    addPFGEdge(csManager.getCSVar(calleeContext, ret), csLHS);
+                }
+            }
+            taintAnalysis.onNewCallEdge(csCallSite, csCallee);
+        }
+    }
+
+    /**
+     * Adds call edge "csCallSite -> csCallee" to the call graph for
+     * a callee whose flows are given by container summaries. The body of
+     * the callee is not analyzed, thus the callee does not become reachable,
+     * and arguments and return values are not connected. If the edge is new,
+     * the taint analysis still handles sources, sinks and taint transfers
+     * of the callee.
+     */
+    private void processSummarizedCallEdge(CSCallSite csCallSite, CSMethod csCallee) {
+        CallKind kind = CallGraphs.getCallKind(csCallSite.getCallSite());
+        if (callGraph.addEdge(new Edge<>(kind, csCallSite, csCallee))) {
+            taintAnalysis.onNewCallEdge(csCallSite, csCallee);
+        }
     }
 
     /**
@@ -0,0 +1,77 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Represents a summary of a container or string-builder method, i.e.,
+ * a flow of objects between argument/base/return variables and the
+ * contents of the receiver object. The bodies of summarized methods are
+ * not analyzed, instead, the flows in their summaries are added to
+ * the pointer flow graph directly.
+ * <ul>
+ *     <li>method: the summarized method
+ *     <li>from: the index of "from" variable, or the contents
+ *     <li>to: the index of "to" variable, or the contents
+ * </ul>
+ */
+record ContainerSummary(JMethod method, int from, int to) {
+
+    /**
+     * Special number representing the contents of the receiver object,
+     * e.g., the elements of a collection or the characters of a builder.
+     */
+    static final int CONTENT = -3;
+
+    /**
+     * String representation of the contents of the receiver object.
+     */
+    private static final String CONTENT_STR = "content";
+
+    @Override
+    public String toString() {
+        return method + ": " + toString(from) + " -> " + toString(to);
+    }
+
+    /**
+     * Coverts string to index.
+     */
+    static int toInt(String s) {
+        return s.equalsIgnoreCase(CONTENT_STR) ?
+                CONTENT : TaintTransfer.toInt(s);
+    }
+
+    /**
+     * Converts index to string.
+     */
+    private static String toString(int index) {
+        return switch (index) {
+            case CONTENT -> CONTENT_STR;
+            case TaintTransfer.BASE -> "base";
+            case TaintTransfer.RESULT -> "result";
+            default -> Integer.toString(index);
+        };
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.config.ConfigException;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+
+/**
+ * Writes each taint flow to a file as one JSON object per line,
+ * as soon as the flow is detected.
+ */
+class JsonLinesTaintFlowWriter implements TaintFlowListener {
+
+    private static final Logger logger = LogManager.getLogger(JsonLinesTaintFlowWriter.class);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final String file;
+
+    private final PrintStream out;
+
+    JsonLinesTaintFlowWriter(String file) {
+        this.file = file;
+        try {
+            out = new PrintStream(file);
+        } catch (FileNotFoundException e) {
+            throw new ConfigException("Failed to open taint flow stream " + file, e);
+        }
+        logger.info("Streaming taint flows to {} ...", file);
+    }
+
+    @Override
+    public void onTaintFlow(TaintFlow flow) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("source", CallGraphs.toString(flow.sourceCall()));
+        node.put("sink", CallGraphs.toString(flow.sinkCall()));
+        node.put("index", flow.index());
+        try {
+            out.println(mapper.writeValueAsString(node));
+        } catch (JsonProcessingException e) {
+            logger.warn("Failed to write taint flow {}", flow, e);
+        }
+        // flush eagerly so that consumers of the stream see the flow
+        out.flush();
+    }
+
+    @Override
+    public void onFinish() {
+        out.close();
+        logger.info("Finished streaming taint flows to {}", file);
+    }
+}
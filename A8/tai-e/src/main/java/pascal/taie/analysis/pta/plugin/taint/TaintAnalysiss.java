@@ -20,58 +20,229 @@
  * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
  */
 
+
 package pascal.taie.analysis.pta.plugin.taint;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
-import pascal.taie.analysis.pta.PointerAnalysisResult;
-import pascal.taie.analysis.pta.core.cs.context.Context;
-import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.cs.Solver;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
+/**
+ * Taint analysis on top of the context-sensitive pointer analysis.
+ * <p>
+ * Option "taint-config" gives one or more taint configurations, each of
+ * which is handled by its own {@link TaintTracker} against the same pointer
+ * analysis. With multiple configurations, taint objects are labelled with
+ * their configurations, and sparse mode (option "taint-sparse") is on by
+ * default: the pointer analysis runs once without taint objects, and then
+ * the taint objects of each configuration are propagated over the shared
+ * PFG in parallel. If sparse mode is turned off explicitly, the taint
+ * objects of all configurations are propagated by the shared solver,
+ * one configuration after another, and they enlarge its points-to sets.
+ * Sparse mode reuses the pointer analysis of the same run only; it does
+ * not load the PFG or points-to sets saved by an earlier run.
+ * <p>
+ * Container summaries are applied to the shared pointer analysis, so the
+ * summaries given by any configuration affect the results of all
+ * configurations.
+ */
 public class TaintAnalysiss {
 
     private static final Logger logger = LogManager.getLogger(TaintAnalysiss.class);
 
-    private final TaintManager manager;
+    /**
+     * Key of the result that maps each taint configuration
+     * to the taint flows detected with it.
+     */
+    public static final String FLOWS_PER_CONFIG = "taint-flows-per-config";
 
-    private final TaintConfig config;
+    /**
+     * Key of the result that maps each taint flow to its witness path.
+     */
+    public static final String FLOW_PATHS = "taint-flow-paths";
 
     private final Solver solver;
 
-    private final CSManager csManager;
+    /**
+     * Trackers of the taint configurations, one per configuration.
+     */
+    private final List<TaintTracker> trackers = new ArrayList<>();
 
-    private final Context emptyContext;
+    /**
+     * Listeners that receive taint flows as soon as they are detected.
+     */
+    private final List<TaintFlowListener> listeners = new ArrayList<>();
 
     public TaintAnalysiss(Solver solver) {
-        manager = new TaintManager();
         this.solver = solver;
-        csManager = solver.getCSManager();
-        emptyContext = solver.getContextSelector().getEmptyContext();
-        config = TaintConfig.readConfig(
-                solver.getOptions().getString("taint-config"),
-                World.get().getClassHierarchy(),
-                World.get().getTypeSystem());
-        logger.info(config);
+        List<String> configFiles = getConfigFiles(solver.getOptions());
+        String cacheDir = solver.getOptions().getString("taint-config-cache");
+        TaintConfigCache cache = cacheDir != null ?
+                new TaintConfigCache(cacheDir, World.get().getOptions()) : null;
+        boolean sparse = solver.getOptions()
+                .getBooleanOrDefault("taint-sparse", configFiles.size() > 1);
+        for (String configFile : configFiles) {
+            TaintConfig config = cache != null ?
+                    cache.readConfig(configFile,
+                            World.get().getClassHierarchy(),
+                            World.get().getTypeSystem()) :
+                    TaintConfig.readConfig(configFile,
+                            World.get().getClassHierarchy(),
+                            World.get().getTypeSystem());
+            logger.info(config);
+            // label taint objects only when multiple configurations
+            // are analyzed, so that taint objects of different
+            // configurations do not mix
+            TaintManager manager = configFiles.size() > 1 ?
+                    new TaintManager(configFile) : new TaintManager();
+            trackers.add(new TaintTracker(configFile, manager, config,
+                    solver, sparse, this::onTaintFlow));
+        }
+        String stream = solver.getOptions().getString("taint-flow-stream");
+        if (stream != null) {
+            addListener(new JsonLinesTaintFlowWriter(stream));
+        }
+        String listener = solver.getOptions().getString("taint-flow-listener");
+        if (listener != null) {
+            addListener(makeListener(listener));
+        }
     }
 
-    // TODO - finish me
+    /**
+     * @return paths of the taint configuration files. Option taint-config
+     * may be a list of paths, or a string of comma-separated paths.
+     */
+    private static List<String> getConfigFiles(AnalysisOptions options) {
+        List<String> files = new ArrayList<>();
+        Object value = options.get("taint-config");
+        if (value instanceof List<?> list) {
+            list.forEach(file -> files.add(file.toString()));
+        } else if (value != null) {
+            for (String file : value.toString().split(",")) {
+                if (!file.isBlank()) {
+                    files.add(file.strip());
+                }
+            }
+        }
+        if (files.isEmpty()) {
+            throw new ConfigException("No taint configuration is given");
+        }
+        return files;
+    }
+
+    private static TaintFlowListener makeListener(String className) {
+        try {
+            Class<?> c = Class.forName(className);
+            return (TaintFlowListener) c.getConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new ConfigException(
+                    "Failed to initialize taint flow listener: " + className, e);
+        }
+    }
+
+    /**
+     * Adds a listener that receives each taint flow as soon as
+     * it is detected.
+     */
+    public void addListener(TaintFlowListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Handles sources, sinks and taint transfers of the callee
+     * when the solver discovers a new call edge.
+     */
+    public void onNewCallEdge(CSCallSite csCallSite, CSMethod csCallee) {
+        trackers.forEach(tracker -> tracker.onNewCallEdge(csCallSite, csCallee));
+    }
+
+    /**
+     * Applies the container summaries of the callee at given call site.
+     * The summaries of all configurations are applied to the shared
+     * pointer analysis, and a callee summarized by any configuration is
+     * not analyzed. Call edges to summarized callees are still added,
+     * so sources, sinks and taint transfers on them are handled for
+     * every configuration.
+     *
+     * @param recvObj the receiver object, or null for static calls.
+     * @return true if the callee is summarized, otherwise false.
+     */
+    public boolean applySummaries(CSCallSite csCallSite, CSObj recvObj, JMethod callee) {
+        boolean summarized = false;
+        for (TaintTracker tracker : trackers) {
+            summarized |= tracker.applySummaries(csCallSite, recvObj, callee);
+        }
+        return summarized;
+    }
+
+    /**
+     * Handles the objects newly pointed to by given variable.
+     */
+    public void onNewPointsToSet(CSVar csVar, PointsToSet delta) {
+        trackers.forEach(tracker -> tracker.onNewPointsToSet(csVar, delta));
+    }
+
+    /**
+     * @return true if the number of detected taint flows has reached
+     * the flow budget for every configuration, so that the pointer
+     * analysis can stop early.
+     */
+    public boolean isFlowBudgetReached() {
+        return trackers.stream().allMatch(TaintTracker::isFlowBudgetReached);
+    }
+
+    private void onTaintFlow(TaintFlow flow) {
+        // trackers may report flows concurrently in sparse mode
+        synchronized (listeners) {
+            listeners.forEach(listener -> listener.onTaintFlow(flow));
+        }
+    }
 
     public void onFinish() {
+        // in sparse mode, the trackers propagate their taint objects
+        // over the shared PFG, and they are independent of each other
+        if (trackers.size() > 1) {
+            trackers.parallelStream().forEach(TaintTracker::propagateTaints);
+        } else {
+            trackers.forEach(TaintTracker::propagateTaints);
+        }
         Set<TaintFlow> taintFlows = collectTaintFlows();
         solver.getResult().storeResult(getClass().getName(), taintFlows);
+        Map<String, Set<TaintFlow>> flowsPerConfig = Maps.newMap();
+        trackers.forEach(tracker ->
+                flowsPerConfig.put(tracker.getLabel(), tracker.getTaintFlows()));
+        solver.getResult().storeResult(FLOWS_PER_CONFIG, flowsPerConfig);
+        Map<TaintFlow, List<Pointer>> paths = Maps.newMap();
+        trackers.forEach(tracker -> paths.putAll(tracker.getTaintPaths()));
+        if (!paths.isEmpty()) {
+            paths.forEach((flow, path) -> logger.info("{} via {}", flow, path));
+            solver.getResult().storeResult(FLOW_PATHS, paths);
+        }
+        listeners.forEach(TaintFlowListener::onFinish);
     }
 
     private Set<TaintFlow> collectTaintFlows() {
+        // taint flows are detected on the fly during (or, in sparse mode,
+        // right after) pointer analysis
         Set<TaintFlow> taintFlows = new TreeSet<>();
-        PointerAnalysisResult result = solver.getResult();
-        // TODO - finish me
-        // You could query pointer analysis results you need via variable result.
+        trackers.forEach(tracker -> taintFlows.addAll(tracker.getTaintFlows()));
         return taintFlows;
     }
 }
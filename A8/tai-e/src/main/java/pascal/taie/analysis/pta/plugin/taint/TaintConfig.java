@@ -35,15 +35,21 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.config.ConfigException;
 import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
 import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 import pascal.taie.util.collection.Sets;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Configuration for taint analysis.
@@ -67,11 +73,96 @@ class TaintConfig {
      */
     private final Set<TaintTransfer> transfers;
 
-    private TaintConfig(Set<Source> sources, Set<Sink> sinks,
-                        Set<TaintTransfer> transfers) {
+    /**
+     * Set of container summaries.
+     */
+    private final Set<ContainerSummary> summaries;
+
+    /**
+     * Set of methods that appear in the configuration.
+     */
+    private final Set<JMethod> relevantMethods = Sets.newSet();
+
+    /**
+     * Map from each method to the sources of the method.
+     */
+    private final Map<JMethod, Set<Source>> sourceIndex;
+
+    /**
+     * Map from each method to the sinks of the method.
+     */
+    private final Map<JMethod, Set<Sink>> sinkIndex;
+
+    /**
+     * Map from each method to the taint transfers of the method.
+     */
+    private final Map<JMethod, Set<TaintTransfer>> transferIndex;
+
+    /**
+     * Map from each method to the container summaries of the method.
+     */
+    private final Map<JMethod, Set<ContainerSummary>> summaryIndex;
+
+    TaintConfig(Set<Source> sources, Set<Sink> sinks,
+                        Set<TaintTransfer> transfers, Set<ContainerSummary> summaries) {
         this.sources = sources;
         this.sinks = sinks;
         this.transfers = transfers;
+        this.summaries = summaries;
+        this.sourceIndex = buildIndex(sources, Source::method);
+        this.sinkIndex = buildIndex(sinks, Sink::method);
+        this.transferIndex = buildIndex(transfers, TaintTransfer::method);
+        this.summaryIndex = buildIndex(summaries, ContainerSummary::method);
+        checkSummaries();
+    }
+
+    /**
+     * Warns about container classes that are summarized inconsistently.
+     * The contents of a receiver object given by the summaries are kept
+     * apart from its fields, thus the contents written by summarized methods
+     * are invisible to the methods that are analyzed as usual, and vice versa.
+     */
+    private void checkSummaries() {
+        MultiMap<JClass, ContainerSummary> classSummaries = Maps.newMultiMap();
+        summaries.forEach(summary -> classSummaries.put(
+                summary.method().getDeclaringClass(), summary));
+        classSummaries.forEachSet((jclass, summaries) -> {
+            boolean writes = summaries.stream()
+                    .anyMatch(s -> s.to() == ContainerSummary.CONTENT);
+            boolean reads = summaries.stream()
+                    .anyMatch(s -> s.from() == ContainerSummary.CONTENT);
+            if (writes && !reads) {
+                logger.warn("Summaries of {} write contents which are never read", jclass);
+            } else if (reads && !writes) {
+                logger.warn("Summaries of {} read contents which are never written", jclass);
+            }
+            List<String> unsummarized = jclass.getDeclaredMethods()
+                    .stream()
+                    .filter(m -> m.isPublic() && !m.isStatic() &&
+                            !m.isConstructor() && !m.isAbstract() &&
+                            !summaryIndex.containsKey(m))
+                    .map(m -> m.getSubsignature().toString())
+                    .sorted()
+                    .toList();
+            if (!unsummarized.isEmpty()) {
+                logger.warn("{} public methods of {} are not summarized," +
+                                " and they do not access the summarized contents: {}",
+                        unsummarized.size(), jclass, unsummarized);
+            }
+        });
+    }
+
+    private <T> Map<JMethod, Set<T>> buildIndex(
+            Set<T> elems, Function<T, JMethod> getMethod) {
+        MultiMap<JMethod, T> index = Maps.newMultiMap();
+        for (T elem : elems) {
+            JMethod method = getMethod.apply(elem);
+            index.put(method, elem);
+            relevantMethods.add(method);
+        }
+        Map<JMethod, Set<T>> result = Maps.newMap(index.keySet().size());
+        index.forEachSet((method, set) -> result.put(method, Set.copyOf(set)));
+        return result;
     }
 
     /**
@@ -119,6 +210,49 @@ class TaintConfig {
         return transfers;
     }
 
+    /**
+     * @return container summaries in the configuration.
+     */
+    Set<ContainerSummary> getSummaries() {
+        return summaries;
+    }
+
+    /**
+     * @return true if given method is a source, sink, taint transfer
+     * or summarized method.
+     */
+    boolean isRelevant(JMethod method) {
+        return relevantMethods.contains(method);
+    }
+
+    /**
+     * @return sources of given method.
+     */
+    Set<Source> getSourcesOf(JMethod method) {
+        return sourceIndex.getOrDefault(method, Set.of());
+    }
+
+    /**
+     * @return sinks of given method.
+     */
+    Set<Sink> getSinksOf(JMethod method) {
+        return sinkIndex.getOrDefault(method, Set.of());
+    }
+
+    /**
+     * @return taint transfers of given method.
+     */
+    Set<TaintTransfer> getTransfersOf(JMethod method) {
+        return transferIndex.getOrDefault(method, Set.of());
+    }
+
+    /**
+     * @return container summaries of given method.
+     */
+    Set<ContainerSummary> getSummariesOf(JMethod method) {
+        return summaryIndex.getOrDefault(method, Set.of());
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("TaintConfig:");
@@ -137,6 +271,11 @@ class TaintConfig {
             transfers.forEach(transfer ->
                     sb.append("  ").append(transfer).append("\n"));
         }
+        if (!summaries.isEmpty()) {
+            sb.append("\nsummaries:\n");
+            summaries.forEach(summary ->
+                    sb.append("  ").append(summary).append("\n"));
+        }
         return sb.toString();
     }
 
@@ -158,11 +297,15 @@ class TaintConfig {
         public TaintConfig deserialize(JsonParser p, DeserializationContext ctxt)
                 throws IOException {
             ObjectCodec oc = p.getCodec();
-            JsonNode node = oc.readTree(p);
+            return deserialize((JsonNode) oc.readTree(p));
+        }
+
+        private TaintConfig deserialize(JsonNode node) {
             Set<Source> sources = deserializeSources(node.get("sources"));
             Set<Sink> sinks = deserializeSinks(node.get("sinks"));
             Set<TaintTransfer> transfers = deserializeTransfers(node.get("transfers"));
-            return new TaintConfig(sources, sinks, transfers);
+            Set<ContainerSummary> summaries = deserializeSummaries(node.get("summaries"));
+            return new TaintConfig(sources, sinks, transfers, summaries);
         }
 
         /**
@@ -255,5 +398,35 @@ class TaintConfig {
                 return Set.of();
             }
         }
+
+        /**
+         * Deserializes a {@link JsonNode} (assume it is an {@link ArrayNode})
+         * to a set of {@link ContainerSummary}.
+         *
+         * @param node the node to be deserialized
+         * @return set of deserialized {@link ContainerSummary}
+         */
+        private Set<ContainerSummary> deserializeSummaries(JsonNode node) {
+            if (node instanceof ArrayNode arrayNode) {
+                Set<ContainerSummary> summaries = Sets.newSet(arrayNode.size());
+                for (JsonNode elem : arrayNode) {
+                    String methodSig = elem.get("method").asText();
+                    JMethod method = hierarchy.getMethod(methodSig);
+                    if (method != null) {
+                        // if the method (given in config file) is absent in
+                        // the class hierarchy, just ignore it.
+                        int from = ContainerSummary.toInt(elem.get("from").asText());
+                        int to = ContainerSummary.toInt(elem.get("to").asText());
+                        summaries.add(new ContainerSummary(method, from, to));
+                    } else {
+                        logger.warn("Cannot find summarized method '{}'", methodSig);
+                    }
+                }
+                return Collections.unmodifiableSet(summaries);
+            } else {
+                // if node is not an instance of ArrayNode, just return an empty set.
+                return Set.of();
+            }
+        }
     }
 }
@@ -0,0 +1,321 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.plugin.taint;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.config.Options;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Caches taint configurations in a compiled binary form.
+ * <p>
+ * A compiled configuration only contains the entries whose methods were
+ * resolved when it was compiled, and refers to the methods and types of
+ * the entries through tables, so that loading it needs neither YAML parsing
+ * nor signature parsing, and each distinct method or type is looked up
+ * only once. As the resolved entries depend on the class hierarchy, each
+ * compiled configuration is keyed by the hash of the configuration file
+ * together with a fingerprint of the inputs of the class hierarchy, i.e.,
+ * the contents of the class path, the main class and the JDK settings.
+ * Thus it is recompiled whenever the file or the analyzed program changes.
+ */
+class TaintConfigCache {
+
+    private static final Logger logger = LogManager.getLogger(TaintConfigCache.class);
+
+    private static final int MAGIC = 0x54434647; // "TCFG"
+
+    private static final int VERSION = 4;
+
+    private final File cacheDir;
+
+    private final Options options;
+
+    /**
+     * Fingerprint of the class hierarchy, computed at the first use.
+     */
+    private byte[] fingerprint;
+
+    TaintConfigCache(String cacheDir, Options options) {
+        this.cacheDir = new File(cacheDir);
+        this.options = options;
+    }
+
+    /**
+     * Loads the taint configuration from the compiled form in cache if
+     * it is present, otherwise reads the configuration file and compiles
+     * it to the cache.
+     */
+    TaintConfig readConfig(
+            String path, ClassHierarchy hierarchy, TypeSystem typeSystem) {
+        File cacheFile;
+        try {
+            cacheFile = new File(cacheDir, computeKey(path) + ".tcfg");
+        } catch (IOException e) {
+            logger.warn("Failed to compute cache key of {}, bypass cache", path, e);
+            return TaintConfig.readConfig(path, hierarchy, typeSystem);
+        }
+        if (cacheFile.isFile()) {
+            try {
+                TaintConfig config = load(cacheFile, hierarchy, typeSystem);
+                if (config != null) {
+                    logger.info("Loaded compiled taint config from {}", cacheFile);
+                    return config;
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to load compiled taint config {}", cacheFile, e);
+            }
+        }
+        TaintConfig config = TaintConfig.readConfig(path, hierarchy, typeSystem);
+        try {
+            save(config, cacheFile);
+            logger.info("Compiled taint config {} to {}", path, cacheFile);
+        } catch (IOException e) {
+            logger.warn("Failed to write compiled taint config {}", cacheFile, e);
+        }
+        return config;
+    }
+
+    /**
+     * @return the cache key, i.e., the hash of the content of given file
+     * and the fingerprint of the class hierarchy.
+     */
+    private String computeKey(String path) throws IOException {
+        if (fingerprint == null) {
+            fingerprint = computeFingerprint();
+        }
+        MessageDigest digest = newDigest();
+        digest.update(Files.readAllBytes(Path.of(path)));
+        digest.update(fingerprint);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @return the fingerprint of the inputs of the class hierarchy.
+     * Each class path entry contributes its path and its contents, where
+     * a directory contributes the relative path and the content of every
+     * file in it, in a deterministic order.
+     */
+    private byte[] computeFingerprint() throws IOException {
+        MessageDigest digest = newDigest();
+        update(digest, options.getMainClass());
+        update(digest, Integer.toString(options.getJavaVersion()));
+        update(digest, Boolean.toString(options.isPrependJVM()));
+        String classPath = options.getClassPath();
+        if (classPath != null) {
+            for (String entry : classPath.split(File.pathSeparator)) {
+                Path root = Path.of(entry);
+                update(digest, entry);
+                if (Files.isDirectory(root)) {
+                    List<Path> files;
+                    try (Stream<Path> paths = Files.walk(root)) {
+                        files = paths.filter(Files::isRegularFile)
+                                .sorted()
+                                .toList();
+                    }
+                    for (Path file : files) {
+                        update(digest, root.relativize(file).toString()
+                                .replace(File.separatorChar, '/'));
+                        update(digest, Files.readAllBytes(file));
+                    }
+                } else if (Files.isRegularFile(root)) {
+                    update(digest, Files.readAllBytes(root));
+                }
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Adds given string to the digest, prefixed by its length,
+     * so that adjacent strings cannot be confused.
+     */
+    private static void update(MessageDigest digest, String s) {
+        update(digest, s == null ? new byte[0] : s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void update(MessageDigest digest, byte[] bytes) {
+        digest.update(HexFormat.of().toHexDigits(bytes.length).getBytes(StandardCharsets.US_ASCII));
+        digest.update(bytes);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("SHA-256 is always available", e);
+        }
+    }
+
+    private void save(TaintConfig config, File cacheFile) throws IOException {
+        Table<JMethod> methods = new Table<>();
+        Table<Type> types = new Table<>();
+        config.getSources().forEach(s -> {
+            methods.indexOf(s.method());
+            types.indexOf(s.type());
+        });
+        config.getSinks().forEach(s -> methods.indexOf(s.method()));
+        config.getTransfers().forEach(t -> {
+            methods.indexOf(t.method());
+            types.indexOf(t.type());
+        });
+        config.getSummaries().forEach(s -> methods.indexOf(s.method()));
+        Files.createDirectories(cacheDir.toPath());
+        // write to a temporary file first, so that concurrent analyses
+        // never see partially written compiled configurations
+        File tmp = File.createTempFile("taint-config", ".tmp", cacheDir);
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp.toPath())))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(types.elems.size());
+                for (Type type : types.elems) {
+                    out.writeUTF(type.getName());
+                }
+                out.writeInt(methods.elems.size());
+                for (JMethod method : methods.elems) {
+                    out.writeUTF(method.getDeclaringClass().getName());
+                    out.writeUTF(method.getSubsignature().toString());
+                }
+                out.writeInt(config.getSources().size());
+                for (Source source : config.getSources()) {
+                    out.writeInt(methods.indexOf(source.method()));
+                    out.writeInt(types.indexOf(source.type()));
+                }
+                out.writeInt(config.getSinks().size());
+                for (Sink sink : config.getSinks()) {
+                    out.writeInt(methods.indexOf(sink.method()));
+                    out.writeInt(sink.index());
+                }
+                out.writeInt(config.getTransfers().size());
+                for (TaintTransfer transfer : config.getTransfers()) {
+                    out.writeInt(methods.indexOf(transfer.method()));
+                    out.writeInt(transfer.from());
+                    out.writeInt(transfer.to());
+                    out.writeInt(types.indexOf(transfer.type()));
+                }
+                out.writeInt(config.getSummaries().size());
+                for (ContainerSummary summary : config.getSummaries()) {
+                    out.writeInt(methods.indexOf(summary.method()));
+                    out.writeInt(summary.from());
+                    out.writeInt(summary.to());
+                }
+            }
+            Files.move(tmp.toPath(), cacheFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    /**
+     * @return the compiled taint configuration, or null if it is malformed
+     * or refers to methods absent in the class hierarchy.
+     */
+    private static TaintConfig load(File cacheFile, ClassHierarchy hierarchy,
+                                    TypeSystem typeSystem) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(cacheFile.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            Type[] types = new Type[in.readInt()];
+            for (int i = 0; i < types.length; ++i) {
+                types[i] = typeSystem.getType(in.readUTF());
+            }
+            JMethod[] methods = new JMethod[in.readInt()];
+            Map<String, JClass> classes = Maps.newMap();
+            for (int i = 0; i < methods.length; ++i) {
+                JClass jclass = classes.computeIfAbsent(in.readUTF(), hierarchy::getClass);
+                Subsignature subsig = Subsignature.get(in.readUTF());
+                methods[i] = jclass != null ? jclass.getDeclaredMethod(subsig) : null;
+                if (methods[i] == null) {
+                    return null;
+                }
+            }
+            List<Source> sources = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; --i) {
+                sources.add(new Source(methods[in.readInt()], types[in.readInt()]));
+            }
+            List<Sink> sinks = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; --i) {
+                sinks.add(new Sink(methods[in.readInt()], in.readInt()));
+            }
+            List<TaintTransfer> transfers = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; --i) {
+                transfers.add(new TaintTransfer(methods[in.readInt()],
+                        in.readInt(), in.readInt(), types[in.readInt()]));
+            }
+            List<ContainerSummary> summaries = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; --i) {
+                summaries.add(new ContainerSummary(methods[in.readInt()],
+                        in.readInt(), in.readInt()));
+            }
+            return new TaintConfig(Set.copyOf(sources), Set.copyOf(sinks),
+                    Set.copyOf(transfers), Set.copyOf(summaries));
+        }
+    }
+
+    /**
+     * Assigns consecutive indexes to distinct elements.
+     */
+    private static class Table<T> {
+
+        private final Map<T, Integer> indexes = Maps.newMap();
+
+        private final List<T> elems = new ArrayList<>();
+
+        private int indexOf(T elem) {
+            return indexes.computeIfAbsent(elem, e -> {
+                elems.add(e);
+                return elems.size() - 1;
+            });
+        }
+    }
+}
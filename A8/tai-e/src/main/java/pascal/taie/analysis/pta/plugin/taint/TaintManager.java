@@ -39,6 +39,24 @@ class TaintManager {
 
     private final TwoKeyMap<Invoke, Type, Obj> taints = Maps.newTwoKeyMap();
 
+    /**
+     * Description of the taint objects made by this manager.
+     */
+    private final String description;
+
+    TaintManager() {
+        description = TAINT_DESC;
+    }
+
+    /**
+     * Creates a taint manager whose taint objects are labeled by
+     * given label, so that they can be distinguished from the taint
+     * objects made by other managers.
+     */
+    TaintManager(String label) {
+        description = TAINT_DESC + "@" + label;
+    }
+
     /**
      * Makes a taint object for given source and type.
      *
@@ -48,15 +66,16 @@ class TaintManager {
      */
     Obj makeTaint(Invoke source, Type type) {
         return taints.computeIfAbsent(source, type,
-                (s, t) -> new MockObj(TAINT_DESC, s, t));
+                (s, t) -> new MockObj(description, s, t));
     }
 
     /**
-     * @return true if given obj represents a taint object, otherwise false.
+     * @return true if given obj represents a taint object made by
+     * this manager, otherwise false.
      */
     boolean isTaint(Obj obj) {
         return obj instanceof MockObj &&
-                ((MockObj) obj).getDescription().equals(TAINT_DESC);
+                ((MockObj) obj).getDescription().equals(description);
     }
 
     /**
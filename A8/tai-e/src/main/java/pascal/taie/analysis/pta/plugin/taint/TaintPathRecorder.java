@@ -0,0 +1,169 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import pascal.taie.analysis.pta.core.cs.element.ArrayBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.util.Indexable;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records, for each source call and each pointer that taint objects
+ * of the source reach, the predecessor pointer from which they first
+ * arrive, and reconstructs witness paths of taint flows from the records.
+ * <p>
+ * Only the first arrival is recorded, and each record is packed into
+ * a slot of primitive arrays (a long key and an int value), so that
+ * the memory used is linear in the number of (source, pointer) pairs.
+ * Pointers are identified by their dense indexes assigned by
+ * {@link ArrayBasedCSManager}.
+ */
+class TaintPathRecorder {
+
+    /**
+     * Predecessor value of the pointers that receive taint objects
+     * directly from source calls.
+     */
+    private static final int ROOT = -1;
+
+    private static final long EMPTY_KEY = -1L;
+
+    private final ArrayBasedCSManager csManager;
+
+    private final Map<Invoke, Integer> sourceIds = Maps.newMap();
+
+    /**
+     * Keys of the open-addressing table, each packs a source id
+     * and a pointer id.
+     */
+    private long[] keys = newKeys(1 << 10);
+
+    /**
+     * Values of the open-addressing table, i.e., ids of predecessors.
+     */
+    private int[] preds = new int[keys.length];
+
+    private int size = 0;
+
+    TaintPathRecorder(ArrayBasedCSManager csManager) {
+        this.csManager = csManager;
+    }
+
+    /**
+     * Records that taint objects of given source call arrive at pointer
+     * from pred, if they have not arrived at pointer before.
+     *
+     * @param pred the predecessor, or null if the taint objects
+     *             come from the source call directly.
+     */
+    void record(Invoke sourceCall, Pointer pointer, Pointer pred) {
+        long key = makeKey(getSourceId(sourceCall), getPointerId(pointer));
+        int i = indexOf(key);
+        if (keys[i] == EMPTY_KEY) {
+            keys[i] = key;
+            preds[i] = pred != null ? getPointerId(pred) : ROOT;
+            if (++size > keys.length * 3 / 4) {
+                rehash();
+            }
+        }
+    }
+
+    /**
+     * @return the witness path along which the taint objects of
+     * given source call reach given pointer, from the pointer that
+     * receives the result of the source call to the given pointer.
+     * If the taint objects never reach the pointer, returns an empty list.
+     */
+    List<Pointer> getPath(Invoke sourceCall, Pointer pointer) {
+        Integer sourceId = sourceIds.get(sourceCall);
+        if (sourceId == null) {
+            return List.of();
+        }
+        List<Pointer> path = new ArrayList<>();
+        int id = getPointerId(pointer);
+        while (id != ROOT) {
+            int i = indexOf(makeKey(sourceId, id));
+            if (keys[i] == EMPTY_KEY) {
+                return List.of();
+            }
+            path.add(csManager.getPointer(id));
+            id = preds[i];
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private int getSourceId(Invoke sourceCall) {
+        return sourceIds.computeIfAbsent(sourceCall, s -> sourceIds.size());
+    }
+
+    private static int getPointerId(Pointer pointer) {
+        return ((Indexable) pointer).getIndex();
+    }
+
+    private static long makeKey(int sourceId, int pointerId) {
+        return ((long) sourceId << 32) | (pointerId & 0xffffffffL);
+    }
+
+    /**
+     * @return the slot of given key, or the empty slot where
+     * the key should be put if it is absent.
+     */
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        long h = key * 0x9E3779B97F4A7C15L;
+        int i = (int) (h ^ (h >>> 32)) & mask;
+        while (keys[i] != EMPTY_KEY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldPreds = preds;
+        keys = newKeys(oldKeys.length << 1);
+        preds = new int[keys.length];
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int j = indexOf(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                preds[j] = oldPreds[i];
+            }
+        }
+    }
+
+    private static long[] newKeys(int capacity) {
+        long[] keys = new long[capacity];
+        Arrays.fill(keys, EMPTY_KEY);
+        return keys;
+    }
+}
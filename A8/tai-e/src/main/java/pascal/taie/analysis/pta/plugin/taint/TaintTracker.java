@@ -0,0 +1,469 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.cs.Solver;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Tracks taint objects and detects taint flows for a single taint
+ * configuration. {@link TaintAnalysiss} runs one tracker per configuration
+ * against the same pointer analysis.
+ */
+class TaintTracker {
+
+    private static final Logger logger = LogManager.getLogger(TaintTracker.class);
+
+    private final String label;
+
+    private final TaintManager manager;
+
+    private final TaintConfig config;
+
+    private final Solver solver;
+
+    private final CSManager csManager;
+
+    private final Context emptyContext;
+
+    /**
+     * Receives each new taint flow detected by this tracker.
+     */
+    private final Consumer<TaintFlow> flowConsumer;
+
+    /**
+     * Taint transfer edges, i.e., PFG edges that only let taint objects
+     * pass, and change their types to the types of the transfers.
+     */
+    private final MultiMap<CSVar, TransferEdge> transferEdges = Maps.newMultiMap();
+
+    /**
+     * Map from each argument of sink calls to the sinks it flows to.
+     */
+    private final MultiMap<CSVar, SinkArg> sinkArgs = Maps.newMultiMap();
+
+    /**
+     * Taint flows detected so far.
+     */
+    private final Set<TaintFlow> taintFlows = new TreeSet<>();
+
+    /**
+     * Maximum number of taint flows to detect, or 0 if unlimited.
+     */
+    private final int flowBudget;
+
+    /**
+     * If true, only the first taint flow to each sink is reported,
+     * and the sink is not checked any more afterwards.
+     */
+    private final boolean firstFlowPerSink;
+
+    /**
+     * Sinks that have been reached by taint flows.
+     * Only used when {@link #firstFlowPerSink} is true.
+     */
+    private final Set<SinkArg> reachedSinks = Sets.newSet();
+
+    /**
+     * If true, taint objects are not mixed into the points-to sets
+     * computed by the solver. Instead, they are propagated alone over
+     * the PFG and taint transfer edges after the pointer analysis finishes.
+     * Sparse mode only reuses the pointer analysis of the same run, as
+     * saved PFGs or points-to results cannot be loaded; to avoid re-running
+     * pointer analysis for each variant of a taint configuration, give all
+     * the variants to option "taint-config" in a single run.
+     */
+    private final boolean sparse;
+
+    /**
+     * Taint objects pointed to by each pointer. Only used in sparse mode.
+     */
+    private final Map<Pointer, PointsToSet> taintPointsTo = Maps.newMap();
+
+    /**
+     * Pending taint objects to be propagated. Only used in sparse mode.
+     */
+    private final Queue<TaintEntry> taintWorkList = new ArrayDeque<>();
+
+    /**
+     * Records provenance of taint objects for reconstructing witness
+     * paths of taint flows, or null if paths are not requested.
+     */
+    private final TaintPathRecorder pathRecorder;
+
+    /**
+     * Map from each taint flow to the sink argument where it is detected.
+     * Only used when {@link #pathRecorder} is not null.
+     */
+    private final Map<TaintFlow, CSVar> flowSinks = Maps.newMap();
+
+    TaintTracker(String label, TaintManager manager, TaintConfig config,
+                 Solver solver, boolean sparse, Consumer<TaintFlow> flowConsumer) {
+        this.label = label;
+        this.manager = manager;
+        this.config = config;
+        this.solver = solver;
+        this.flowConsumer = flowConsumer;
+        csManager = solver.getCSManager();
+        emptyContext = solver.getContextSelector().getEmptyContext();
+        flowBudget = solver.getOptions().get("taint-flow-budget")
+                instanceof Number n ? n.intValue() : 0;
+        firstFlowPerSink = solver.getOptions()
+                .getBooleanOrDefault("taint-first-flow-per-sink", false);
+        this.sparse = sparse;
+        boolean paths = solver.getOptions().getBooleanOrDefault("taint-paths", false);
+        // provenance of taint objects is recorded by the sparse propagation
+        if (paths && !sparse) {
+            throw new ConfigException(
+                    "Option taint-paths:true requires sparse mode (taint-sparse:true)");
+        }
+        pathRecorder = paths ? new TaintPathRecorder(solver.getCSManager()) : null;
+    }
+
+    String getLabel() {
+        return label;
+    }
+
+    /**
+     * Handles sources, sinks and taint transfers of the callee
+     * when the solver discovers a new call edge.
+     */
+    void onNewCallEdge(CSCallSite csCallSite, CSMethod csCallee) {
+        JMethod callee = csCallee.getMethod();
+        if (!config.isRelevant(callee)) {
+            return;
+        }
+        Invoke callSite = csCallSite.getCallSite();
+        Context context = csCallSite.getContext();
+        Var lhs = callSite.getLValue();
+        if (lhs != null) {
+            for (Source source : config.getSourcesOf(callee)) {
+                Obj taint = manager.makeTaint(callSite, source.type());
+                addTaints(csManager.getCSVar(context, lhs),
+                        PointsToSetFactory.make(getCSTaint(taint)), null);
+            }
+        }
+        for (Sink sink : config.getSinksOf(callee)) {
+            Var arg = callSite.getInvokeExp().getArg(sink.index());
+            CSVar csArg = csManager.getCSVar(context, arg);
+            SinkArg sinkArg = new SinkArg(callSite, sink.index());
+            if (sinkArgs.put(csArg, sinkArg)) {
+                detectFlows(getTaintsOf(csArg), csArg, sinkArg);
+            }
+        }
+        for (TaintTransfer transfer : config.getTransfersOf(callee)) {
+            Var from = getVar(callSite, transfer.from());
+            Var to = getVar(callSite, transfer.to());
+            if (from != null && to != null) {
+                addTransferEdge(csManager.getCSVar(context, from),
+                        csManager.getCSVar(context, to), transfer.type());
+            }
+        }
+    }
+
+    /**
+     * Applies the container summaries of the callee at given call site,
+     * i.e., adds the flows in the summaries to the PFG. The contents of
+     * a receiver object are represented by its array-index pointer.
+     *
+     * @param recvObj the receiver object, or null for static calls.
+     * @return true if the callee is summarized, otherwise false.
+     */
+    boolean applySummaries(CSCallSite csCallSite, CSObj recvObj, JMethod callee) {
+        Set<ContainerSummary> summaries = config.getSummariesOf(callee);
+        if (summaries.isEmpty()) {
+            return false;
+        }
+        for (ContainerSummary summary : summaries) {
+            Pointer from = getPointer(csCallSite, recvObj, summary.from());
+            Pointer to = getPointer(csCallSite, recvObj, summary.to());
+            if (from != null && to != null) {
+                solver.addPFGEdge(from, to);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the pointer at given index of the call site, i.e.,
+     * the contents of the receiver object, the base variable,
+     * the result variable, or an argument.
+     */
+    private Pointer getPointer(CSCallSite csCallSite, CSObj recvObj, int index) {
+        if (index == ContainerSummary.CONTENT) {
+            return recvObj != null ? csManager.getArrayIndex(recvObj) : null;
+        }
+        Var var = getVar(csCallSite.getCallSite(), index);
+        return var != null ? csManager.getCSVar(csCallSite.getContext(), var) : null;
+    }
+
+    /**
+     * Handles the objects newly pointed to by given variable,
+     * i.e., transfers them along taint transfer edges and checks
+     * whether they reach sinks.
+     */
+    void onNewPointsToSet(CSVar csVar, PointsToSet delta) {
+        if (sparse) {
+            // taint objects are propagated after the pointer analysis
+            return;
+        }
+        processNewTaints(csVar, delta);
+    }
+
+    private void processNewTaints(CSVar csVar, PointsToSet delta) {
+        Set<TransferEdge> edges = transferEdges.get(csVar);
+        Set<SinkArg> sinks = sinkArgs.get(csVar);
+        if (edges.isEmpty() && sinks.isEmpty()) {
+            return;
+        }
+        edges.forEach(edge -> transferTaints(delta, csVar, edge));
+        sinks.forEach(sinkArg -> detectFlows(delta, csVar, sinkArg));
+    }
+
+    /**
+     * @return true if the number of detected taint flows has reached
+     * the flow budget.
+     */
+    boolean isFlowBudgetReached() {
+        return flowBudget > 0 && taintFlows.size() >= flowBudget;
+    }
+
+    /**
+     * @return the variable at given index of the call site, i.e.,
+     * the base variable, the result variable, or an argument.
+     */
+    private static Var getVar(Invoke callSite, int index) {
+        InvokeExp invokeExp = callSite.getInvokeExp();
+        return switch (index) {
+            case TaintTransfer.BASE -> invokeExp instanceof InvokeInstanceExp instanceExp ?
+                    instanceExp.getBase() : null;
+            case TaintTransfer.RESULT -> callSite.getLValue();
+            default -> invokeExp.getArg(index);
+        };
+    }
+
+    private void addTransferEdge(CSVar from, CSVar to, Type type) {
+        TransferEdge edge = new TransferEdge(to, type);
+        if (transferEdges.put(from, edge)) {
+            transferTaints(getTaintsOf(from), from, edge);
+        }
+    }
+
+    /**
+     * Transfers the taint objects in pts of given pointer along given edge.
+     */
+    private void transferTaints(PointsToSet pts, Pointer from, TransferEdge edge) {
+        PointsToSet transferred = PointsToSetFactory.make();
+        for (CSObj csObj : pts) {
+            Obj obj = csObj.getObject();
+            if (manager.isTaint(obj)) {
+                Obj taint = manager.makeTaint(manager.getSourceCall(obj), edge.type());
+                transferred.addObject(getCSTaint(taint));
+            }
+        }
+        if (!transferred.isEmpty()) {
+            addTaints(edge.target(), transferred, from);
+        }
+    }
+
+    /**
+     * @return the context-sensitive taint object. Taint objects are
+     * always in the empty context.
+     */
+    private CSObj getCSTaint(Obj taint) {
+        // the CS manager is shared by the trackers that
+        // propagate taint objects in parallel in sparse mode
+        synchronized (csManager) {
+            return csManager.getCSObj(emptyContext, taint);
+        }
+    }
+
+    /**
+     * Adds taint objects to the points-to set of given pointer.
+     *
+     * @param pred the pointer from which the taint objects flow to
+     *             given pointer, or null if they come from a source call.
+     */
+    private void addTaints(Pointer pointer, PointsToSet taints, Pointer pred) {
+        if (sparse) {
+            taintWorkList.add(new TaintEntry(pointer, taints, pred));
+        } else {
+            solver.addPointsTo(pointer, taints);
+        }
+    }
+
+    /**
+     * @return the points-to set of given pointer that contains
+     * (but may not be limited to) its taint objects.
+     */
+    private PointsToSet getTaintsOf(Pointer pointer) {
+        if (sparse) {
+            PointsToSet taints = taintPointsTo.get(pointer);
+            return taints != null ? taints : PointsToSetFactory.make();
+        } else {
+            return pointer.getPointsToSet();
+        }
+    }
+
+    /**
+     * Propagates only taint objects over the PFG built by the solver
+     * and the taint transfer edges. Only the pointers reachable from
+     * sources are visited. Does nothing if this tracker is not in
+     * sparse mode.
+     */
+    void propagateTaints() {
+        if (!sparse) {
+            return;
+        }
+        while (!taintWorkList.isEmpty() && !isFlowBudgetReached()) {
+            TaintEntry entry = taintWorkList.poll();
+            Pointer pointer = entry.pointer();
+            PointsToSet taints = taintPointsTo.computeIfAbsent(
+                    pointer, p -> PointsToSetFactory.make());
+            PointsToSet delta = PointsToSetFactory.make();
+            entry.taints().forEach(taint -> {
+                if (taints.addObject(taint)) {
+                    delta.addObject(taint);
+                    if (pathRecorder != null) {
+                        pathRecorder.record(manager.getSourceCall(taint.getObject()),
+                                pointer, entry.pred());
+                    }
+                }
+            });
+            if (!delta.isEmpty()) {
+                solver.getPFGSuccsOf(pointer).forEach(succ ->
+                        taintWorkList.add(new TaintEntry(succ, delta, pointer)));
+                if (pointer instanceof CSVar csVar) {
+                    processNewTaints(csVar, delta);
+                }
+            }
+        }
+        logger.info("[{}] Propagated taint objects to {} pointers",
+                label, taintPointsTo.size());
+    }
+
+    /**
+     * Records the taint flows from the taint objects in pts of
+     * given sink argument to given sink.
+     */
+    private void detectFlows(PointsToSet pts, CSVar csArg, SinkArg sinkArg) {
+        for (CSObj csObj : pts) {
+            if (isFlowBudgetReached() ||
+                    (firstFlowPerSink && reachedSinks.contains(sinkArg))) {
+                return;
+            }
+            Obj obj = csObj.getObject();
+            if (manager.isTaint(obj)) {
+                TaintFlow flow = new TaintFlow(manager.getSourceCall(obj),
+                        sinkArg.sinkCall(), sinkArg.index());
+                if (pathRecorder != null) {
+                    flowSinks.putIfAbsent(flow, csArg);
+                }
+                reportFlow(flow);
+                if (firstFlowPerSink) {
+                    reachedSinks.add(sinkArg);
+                }
+            }
+        }
+    }
+
+    private void reportFlow(TaintFlow flow) {
+        if (taintFlows.add(flow)) {
+            flowConsumer.accept(flow);
+        }
+    }
+
+    /**
+     * @return taint flows detected by this tracker.
+     */
+    Set<TaintFlow> getTaintFlows() {
+        return taintFlows;
+    }
+
+    /**
+     * Reconstructs a witness path for each detected taint flow.
+     * Each path starts at the pointer that receives the result of
+     * the source call, and ends at the sink argument.
+     *
+     * @return map from taint flows to their witness paths, or an empty
+     * map if paths are not requested.
+     */
+    Map<TaintFlow, List<Pointer>> getTaintPaths() {
+        if (pathRecorder == null) {
+            return Map.of();
+        }
+        Map<TaintFlow, List<Pointer>> paths = Maps.newMap(flowSinks.size());
+        flowSinks.forEach((flow, csArg) ->
+                paths.put(flow, pathRecorder.getPath(flow.sourceCall(), csArg)));
+        return paths;
+    }
+
+    /**
+     * Represents a taint transfer edge to target with the type of
+     * the transferred taint objects.
+     */
+    private record TransferEdge(CSVar target, Type type) {
+    }
+
+    /**
+     * Represents the index-th argument of a sink call.
+     */
+    private record SinkArg(Invoke sinkCall, int index) {
+    }
+
+    /**
+     * Represents entries of the work list for taint objects.
+     */
+    private record TaintEntry(Pointer pointer, PointsToSet taints, Pointer pred) {
+    }
+}
@@ -22,8 +22,32 @@
 
 package pascal.taie.analysis.pta;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
+import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
+import pascal.taie.config.ConfigException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class TaintTest {
 
@@ -70,4 +94,148 @@ public class TaintTest {
         Tests.testCSPTA(DIR, "TaintInList",
                 "cs:2-obj;taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
+
+    @Test
+    public void testContainerSummaries() {
+        Tests.testCSPTA(DIR, "SummaryTaint",
+                "taint-config:src/test/resources/pta/taint/taint-config-summaries.yml");
+        // summarized methods are not analyzed, thus not reachable
+        assertTrue(World.get()
+                .<PointerAnalysisResult>getResult(CSPTA.ID)
+                .getCallGraph()
+                .reachableMethods()
+                .noneMatch(m -> m.getDeclaringClass().getName()
+                        .equals("java.util.ArrayList") &&
+                        (m.getName().equals("add") || m.getName().equals("get"))));
+    }
+
+    @Test
+    public void testFlowBudget() {
+        Tests.testCSPTA(DIR, "FlowBudget",
+                "taint-config:src/test/resources/pta/taint/taint-config.yml",
+                "taint-flow-budget:1");
+    }
+
+    @Test
+    public void testFlowStream() throws IOException {
+        Path stream = Files.createTempFile("taint-flows", ".jsonl");
+        try {
+            Tests.testCSPTA(DIR, "ArgToResult",
+                    "taint-config:src/test/resources/pta/taint/taint-config.yml",
+                    "taint-flow-stream:" + stream);
+            List<String> lines = Files.readAllLines(stream);
+            assertEquals(1, lines.size());
+            JsonNode flow = new ObjectMapper().readTree(lines.get(0));
+            assertEquals(0, flow.get("index").asInt());
+            assertTrue(flow.get("source").asText()
+                    .contains("<SourceSink: java.lang.String source()>"));
+            assertTrue(flow.get("sink").asText()
+                    .contains("<SourceSink: void sink(java.lang.String)>(s2)"));
+        } finally {
+            Files.deleteIfExists(stream);
+        }
+    }
+
+    @Test
+    public void testSparseTaint() {
+        Tests.testCSPTA(DIR, "SparseTaint",
+                "taint-config:src/test/resources/pta/taint/taint-config.yml",
+                "taint-sparse:true");
+    }
+
+    @Test
+    public void testMultiConfig() {
+        String config = "src/test/resources/pta/taint/taint-config.yml";
+        String multiConfig = "src/test/resources/pta/taint/taint-config-multi.yml";
+        Tests.testCSPTA(DIR, "MultiConfig",
+                "taint-config:" + config + "," + multiConfig,
+                "taint-sparse:false");
+        Map<String, Set<TaintFlow>> flowsPerConfig = World.get()
+                .<PointerAnalysisResult>getResult(CSPTA.ID)
+                .getResult(TaintAnalysiss.FLOWS_PER_CONFIG);
+        assertEquals(2, flowsPerConfig.get(config).size());
+        assertEquals(1, flowsPerConfig.get(multiConfig).size());
+    }
+
+    @Test
+    public void testSparseMultiConfig() {
+        String config = "src/test/resources/pta/taint/taint-config.yml";
+        String multiConfig = "src/test/resources/pta/taint/taint-config-multi.yml";
+        // multiple configurations are analyzed in sparse mode by default
+        Tests.testCSPTA(DIR, "SparseMultiConfig",
+                "taint-config:" + config + "," + multiConfig);
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        Map<String, Set<TaintFlow>> flowsPerConfig =
+                result.getResult(TaintAnalysiss.FLOWS_PER_CONFIG);
+        assertEquals(2, flowsPerConfig.get(config).size());
+        assertEquals(1, flowsPerConfig.get(multiConfig).size());
+        // taint objects do not enter the shared points-to sets
+        assertTrue(result.getVars()
+                .stream()
+                .flatMap(var -> result.getPointsToSet(var).stream())
+                .noneMatch(obj -> obj.toString().startsWith("TaintObj")));
+    }
+
+    @Test
+    public void testTaintPaths() {
+        Tests.testCSPTA(DIR, "TaintPaths",
+                "taint-config:src/test/resources/pta/taint/taint-config.yml",
+                "taint-sparse:true", "taint-paths:true");
+        Map<TaintFlow, List<Pointer>> paths = World.get()
+                .<PointerAnalysisResult>getResult(CSPTA.ID)
+                .getResult(TaintAnalysiss.FLOW_PATHS);
+        assertEquals(1, paths.size());
+        List<Pointer> path = paths.values().iterator().next();
+        // the shortest path goes through box.f = taint, not through s2
+        assertEquals(List.of("temp$0", "taint", "f", "s3"),
+                path.stream().map(TaintTest::getName).toList());
+    }
+
+    private static String getName(Pointer pointer) {
+        return pointer instanceof CSVar csVar ?
+                csVar.getVar().getName() :
+                ((InstanceField) pointer).getField().getName();
+    }
+
+    @Test(expected = ConfigException.class)
+    public void testTaintPathsWithoutSparse() {
+        Tests.testCSPTA(DIR, "TaintPaths",
+                "taint-config:src/test/resources/pta/taint/taint-config.yml",
+                "taint-paths:true");
+    }
+
+    @Test
+    public void testConfigCache() throws IOException {
+        Path cacheDir = Files.createTempDirectory("taint-config-cache");
+        try {
+            Path config = cacheDir.resolve("taint-config.yml");
+            Files.copy(Path.of("src/test/resources/pta/taint/taint-config-cache.yml"), config);
+            String[] opts = {"taint-config:" + config, "taint-config-cache:" + cacheDir};
+            // compiles the config, where entries of SummaryTaint are unresolved
+            Tests.testCSPTA(DIR, "ArgToResult", opts);
+            assertEquals(1, countCompiledConfigs(cacheDir));
+            // the class hierarchy differs, thus the config is compiled again
+            Tests.testCSPTA(DIR, "SummaryTaint", opts);
+            assertEquals(2, countCompiledConfigs(cacheDir));
+            // loads the compiled config with resolved entries of SummaryTaint
+            Tests.testCSPTA(DIR, "SummaryTaint", opts);
+            assertEquals(2, countCompiledConfigs(cacheDir));
+            // changes of the config file are not hidden by the cache
+            Files.writeString(config, "# changed\n", StandardOpenOption.APPEND);
+            Tests.testCSPTA(DIR, "SummaryTaint", opts);
+            assertEquals(3, countCompiledConfigs(cacheDir));
+        } finally {
+            try (Stream<Path> paths = Files.walk(cacheDir)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    private static int countCompiledConfigs(Path cacheDir) {
+        File[] files = cacheDir.toFile().listFiles(
+                (dir, name) -> name.endsWith(".tcfg"));
+        return files == null ? 0 : files.length;
+    }
 }
@@ -0,0 +1,11 @@
+class FlowBudget {
+
+    public static void main(String[] args) {
+        String t1 = SourceSink.source();
+        SourceSink.sink(t1); // taint
+        String t2 = SourceSink.source();
+        SourceSink.sink(t2); // taint, not reported due to budget
+        String t3 = SourceSink.source();
+        SourceSink.sink(t3); // taint, not reported due to budget
+    }
+}
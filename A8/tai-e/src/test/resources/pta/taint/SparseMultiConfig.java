@@ -0,0 +1,8 @@
+class SparseMultiConfig {
+
+    public static void main(String[] args) {
+        String taint = SourceSink.source();
+        SourceSink.sink(taint); // taint in both configurations
+        SourceSink.sink(taint, 0); // taint only in taint-config.yml
+    }
+}
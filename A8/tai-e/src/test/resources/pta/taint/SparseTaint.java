@@ -0,0 +1,12 @@
+class SparseTaint {
+
+    public static void main(String[] args) {
+        String taint = SourceSink.source();
+        String s1 = new String();
+        String s2 = s1.concat(taint);
+        SourceSink.sink(s2); // taint
+        String s3 = taint.concat(s1);
+        SourceSink.sink(s3, 0); // taint
+        SourceSink.sink(s1); // no taint
+    }
+}
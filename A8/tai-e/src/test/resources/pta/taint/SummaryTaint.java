@@ -0,0 +1,21 @@
+import java.util.ArrayList;
+
+class SummaryTaint {
+
+    public static void main(String[] args) {
+        ArrayList l1 = new ArrayList();
+        l1.add(SourceSink.source());
+        Object o1 = l1.get(0);
+        sink(o1);
+
+        ArrayList l2 = new ArrayList();
+        l2.add(new String());
+        Object o2 = l2.get(0);
+        sink(o2);
+        Object o3 = l2.remove(0);
+        sink(o3);
+    }
+
+    static void sink(Object o) {
+    }
+}
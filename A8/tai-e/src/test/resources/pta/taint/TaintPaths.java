@@ -0,0 +1,15 @@
+class TaintPaths {
+
+    String f;
+
+    public static void main(String[] args) {
+        String taint = SourceSink.source();
+        String s1 = new String();
+        String s2 = s1.concat(taint);
+        TaintPaths box = new TaintPaths();
+        box.f = s2;
+        box.f = taint;
+        String s3 = box.f;
+        SourceSink.sink(s3); // taint
+    }
+}